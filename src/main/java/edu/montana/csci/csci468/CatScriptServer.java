@@ -3,6 +3,8 @@ package edu.montana.csci.csci468;
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.js.JSTranspiler;
 import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.ParseBudget;
+import edu.montana.csci.csci468.parser.ParseBudgetExceededException;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.ParseErrorException;
 import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
@@ -18,6 +20,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 import static spark.Spark.*;
@@ -28,6 +31,11 @@ class CatScriptServer {
         Spark.staticFiles.location("/public");
         Web.init();
 
+        exception(ParseBudgetExceededException.class, (exception, req, resp) -> {
+            resp.status(422);
+            resp.body("<pre>" + exception.getMessage() + "</pre>");
+        });
+
         get("/", (req, resp) -> {
 
             String name = req.queryParams("file");
@@ -48,7 +56,7 @@ class CatScriptServer {
 
         get("/tokenize", (req, resp) -> {
             String source = req.queryParams("src");
-            TokenList tokens = new CatScriptTokenizer(source).getTokens();
+            TokenList tokens = CatScriptTokenizer.pooled(source).getTokens();
             return "<pre>" +
                     tokens.stream().map(token -> token.toString() + "\n").collect(Collectors.toList()) +
                     "</pr>";
@@ -56,15 +64,17 @@ class CatScriptServer {
 
         get("/parse", (req, resp) -> {
             String source = req.queryParams("src");
-            CatScriptProgram program = new CatScriptParser().parse(source);
+            ParseBudget budget = budget();
+            CatScriptProgram program = new CatScriptParser().parse(CatScriptTokenizer.pooled(source, budget.getMaxTokens()).getTokens(), budget);
             return HTMLParseTreeRenderer.render(program);
         });
 
         get("/evaluate", (req, resp) -> {
             String source = req.queryParams("src");
-            CatScriptProgram program = new CatScriptParser().parse(source);
+            ParseBudget budget = budget();
+            CatScriptProgram program = new CatScriptParser().parse(CatScriptTokenizer.pooled(source, budget.getMaxTokens()).getTokens(), budget);
             try {
-                program.verify();
+                program.verify(ForkJoinPool.commonPool(), budget);
                 program.execute();
                 return program.getOutput();
             } catch (ParseErrorException parseErrorException) {
@@ -76,9 +86,10 @@ class CatScriptServer {
         get("/transpile", (req, resp) -> {
             String source = req.queryParams("src");
 
-            CatScriptProgram program = new CatScriptParser().parse(source);
+            ParseBudget budget = budget();
+            CatScriptProgram program = new CatScriptParser().parse(CatScriptTokenizer.pooled(source, budget.getMaxTokens()).getTokens(), budget);
             try {
-                program.verify();
+                program.verify(ForkJoinPool.commonPool(), budget);
                 JSTranspiler jsTranspiler = new JSTranspiler(program);
                 String jsSource = jsTranspiler.getJavascriptSource();
                 String output = jsTranspiler.evaluate();
@@ -91,9 +102,10 @@ class CatScriptServer {
 
         get("/compile", (req, resp) -> {
             String source = req.queryParams("src");
-            CatScriptProgram program = new CatScriptParser().parse(source);
+            ParseBudget budget = budget();
+            CatScriptProgram program = new CatScriptParser().parse(CatScriptTokenizer.pooled(source, budget.getMaxTokens()).getTokens(), budget);
             try {
-                program.verify();
+                program.verify(ForkJoinPool.commonPool(), budget);
                 ByteCodeGenerator byteCodeGenerator = new ByteCodeGenerator(program);
                 CatScriptProgram compiledProgram = byteCodeGenerator.compileToBytecode();
                 compiledProgram.execute();
@@ -105,4 +117,13 @@ class CatScriptServer {
         });
 
     }
+
+    // a fresh budget per request, its clock starts now; requests parse on their own thread,
+    // as the pooled tokenizer's list is reused by the next request on it, but verify on the pool
+    private static ParseBudget budget() {
+        return new ParseBudget(Integer.getInteger("catscript.maxTokens", 100_000),
+                Integer.getInteger("catscript.maxDepth", 200),
+                Integer.getInteger("catscript.maxErrors", 100),
+                Long.getLong("catscript.timeoutMillis", 2_000));
+    }
 }
\ No newline at end of file
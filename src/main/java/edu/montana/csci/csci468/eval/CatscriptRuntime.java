@@ -1,46 +1,79 @@
 package edu.montana.csci.csci468.eval;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.Map;
+import java.util.Arrays;
 
-// TODO - implement proper scoping
+/**
+ * Variables are read and written by the frame depth and slot verify() resolved them to,
+ * depth being how many parent links to follow from the running frame.  Frames that are
+ * done with are cleared and kept, by size, for the next call that needs one.
+ */
 public class CatscriptRuntime {
-    LinkedList<Map<String, Object>> scopes = new LinkedList<>();
+    // frames bigger than this are rare enough to just allocate
+    private static final int MAX_POOLED_SIZE = 32;
+    // per size, so a deep recursion that has unwound does not keep all its frames
+    private static final int MAX_POOLED_PER_SIZE = 1024;
 
-    public CatscriptRuntime(){
-        HashMap<String, Object> globalScope = new HashMap<>();
-        scopes.push(globalScope);
+    private Frame globals = new Frame(0);
+    private Frame current = globals;
+    private final Frame[] free = new Frame[MAX_POOLED_SIZE + 1];
+    private final int[] freeCount = new int[MAX_POOLED_SIZE + 1];
+
+    public Object getValue(int depth, int slot) {
+        return frameAt(depth).slots[slot];
+    }
+
+    public void setValue(int depth, int slot, Object val) {
+        frameAt(depth).slots[slot] = val;
     }
 
-    public Object getValue(String name) {
-        Iterator<Map<String, Object>> mapIterator = scopes.descendingIterator();
-        while (mapIterator.hasNext()) {
-            Map<String, Object> scope = mapIterator.next();
-            if (scope.containsKey(name)) {
-                return scope.get(name);
-            }
+    private Frame frameAt(int depth) {
+        Frame frame = current;
+        for (int i = 0; i < depth; i++) {
+            frame = frame.parent;
         }
-        return null;
+        return frame;
     }
 
-    public void setValue(String variableName, Object val) {
-        for (Map<String, Object> scope : scopes) {
-            if (scope.containsKey(variableName)) {
-                scope.put(variableName, val);
-                return;
-            }
+    // the frame for the top level statements of a program
+    public void enterProgram(int size) {
+        globals = new Frame(size);
+        current = globals;
+    }
+
+    /**
+     * A cleared frame for a function declared at the top level.  Its arguments can be set
+     * before pushFrame() runs it, while the caller's frame is still the current one.
+     */
+    public Frame newFrame(int size) {
+        Frame frame;
+        if (size <= MAX_POOLED_SIZE && freeCount[size] > 0) {
+            frame = free[size];
+            free[size] = frame.caller;
+            freeCount[size]--;
+        } else {
+            frame = new Frame(size);
         }
-        scopes.peekLast().put(variableName, val);
+        frame.parent = globals;
+        return frame;
     }
 
-    public void pushScope() {
-        scopes.push(new HashMap<>());
+    public void pushFrame(Frame frame) {
+        frame.caller = current;
+        current = frame;
     }
 
-    public void popScope() {
-        scopes.pop();
+    // leaves the current frame and gives it back to the pool
+    public void popFrame() {
+        Frame frame = current;
+        current = frame.caller;
+        int size = frame.slots.length;
+        if (size <= MAX_POOLED_SIZE && freeCount[size] < MAX_POOLED_PER_SIZE) {
+            Arrays.fill(frame.slots, null);
+            frame.parent = null;
+            frame.caller = free[size];
+            free[size] = frame;
+            freeCount[size]++;
+        }
     }
 
-}
\ No newline at end of file
+}
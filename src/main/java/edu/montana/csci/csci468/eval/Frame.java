@@ -0,0 +1,27 @@
+package edu.montana.csci.csci468.eval;
+
+/**
+ * The variables of one function call, or of the top level statements of a program, in
+ * the slots verify() gave them.  Frames are handed out and taken back by a
+ * CatscriptRuntime, which reuses them for later calls.
+ */
+public final class Frame {
+    final Object[] slots;
+    // the frame the function was declared in, depth 1 from this one
+    Frame parent;
+    // the frame that was running when this one was entered, or the next free frame
+    // while this one is in the pool
+    Frame caller;
+
+    Frame(int size) {
+        slots = new Object[size];
+    }
+
+    public void setValue(int slot, Object value) {
+        slots[slot] = value;
+    }
+
+    public int size() {
+        return slots.length;
+    }
+}
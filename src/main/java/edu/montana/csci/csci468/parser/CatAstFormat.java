@@ -0,0 +1,671 @@
+package edu.montana.csci.csci468.parser;
+
+import edu.montana.csci.csci468.parser.expressions.*;
+import edu.montana.csci.csci468.parser.statements.*;
+import edu.montana.csci.csci468.tokenizer.LineIndex;
+import edu.montana.csci.csci468.tokenizer.Token;
+import edu.montana.csci.csci468.tokenizer.TokenType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static edu.montana.csci.csci468.tokenizer.TokenType.*;
+
+/**
+ * The .catast format: a verified CatScriptProgram written out with its node kinds,
+ * resolved types and variable slots, literals and token positions, so it can be loaded again without
+ * tokenizing, parsing or validating its source.
+ *
+ * A file is the magic number and format version, the SHA-256 of the source it was made
+ * from, a string table, a token table and then the nodes in pre-order.  Every count,
+ * position and table reference is an unsigned LEB128 varint, and tokens are written
+ * relative to the one before them so most of them take a byte.
+ */
+public class CatAstFormat {
+
+    static final int MAGIC = 0x43415431; // "CAT1"
+    // 2 added the frame sizes and variable slots verify() resolves
+    static final int VERSION = 2;
+
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+    // node kinds
+    private static final int PROGRAM_STATEMENTS = 1;
+    private static final int PROGRAM_EXPRESSION = 2;
+    private static final int FUNCTION_DEFINITION = 3;
+    private static final int VARIABLE = 4;
+    private static final int ASSIGNMENT = 5;
+    private static final int PRINT = 6;
+    private static final int IF = 7;
+    private static final int FOR = 8;
+    private static final int RETURN_VALUE = 9;
+    private static final int RETURN_VOID = 10;
+    private static final int FUNCTION_CALL_STATEMENT = 11;
+    private static final int ADDITIVE = 12;
+    private static final int FACTOR = 13;
+    private static final int COMPARISON = 14;
+    private static final int EQUALITY = 15;
+    private static final int UNARY = 16;
+    private static final int PARENTHESIZED = 17;
+    private static final int IDENTIFIER_REFERENCE = 18;
+    private static final int FUNCTION_CALL = 19;
+    private static final int LIST_LITERAL = 20;
+    private static final int INTEGER_LITERAL = 21;
+    private static final int STRING_LITERAL = 22;
+    private static final int BOOLEAN_LITERAL = 23;
+    private static final int NULL_LITERAL = 24;
+
+    // type tags, 0 is no type
+    private static final CatscriptType[] SIMPLE_TYPES = {null, CatscriptType.INT, CatscriptType.STRING,
+            CatscriptType.BOOLEAN, CatscriptType.OBJECT, CatscriptType.NULL, CatscriptType.VOID};
+    private static final int LIST_TYPE = SIMPLE_TYPES.length;
+
+    public static void write(CatScriptProgram program, String source, OutputStream out) throws IOException {
+        Writer writer = new Writer();
+        writer.writeNode(program);
+
+        Output header = new Output();
+        header.writeInt(MAGIC);
+        header.writeVarint(VERSION);
+        header.write(sourceHash(source));
+        header.writeVarint(writer.strings.size());
+        for (String string : writer.stringList) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            header.writeVarint(bytes.length);
+            header.write(bytes);
+        }
+        // sorted by index, each relative to the one before it
+        int[] indexes = writer.tokens.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        header.writeVarint(indexes.length);
+        int lastIndex = 0;
+        int lastStart = 0;
+        int lastLine = 0;
+        for (int index : indexes) {
+            Token token = writer.tokens.get(index);
+            header.write(token.getType().ordinal());
+            header.writeVarint(index - lastIndex);
+            header.writeVarint(token.getStart() - lastStart);
+            header.writeVarint(token.getEnd() - token.getStart());
+            header.writeVarint(token.getLine() - lastLine);
+            header.writeVarint(token.getLineOffset());
+            lastIndex = index;
+            lastStart = token.getStart();
+            lastLine = token.getLine();
+        }
+        header.writeTo(out);
+        writer.nodes.writeTo(out);
+    }
+
+    /**
+     * Loads a program written by write() for the given source.  Throws StaleAstException
+     * when the data was written by another format version or for a different source, in
+     * which case the source has to be parsed again.
+     */
+    public static CatScriptProgram read(InputStream in, String source) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(in.readAllBytes());
+        try {
+            if (data.getInt() != MAGIC) {
+                throw new IOException("Not a .catast file");
+            }
+            int version = readVarint(data);
+            if (version != VERSION) {
+                throw new StaleAstException("Written by format version " + version + ", expected " + VERSION);
+            }
+            byte[] hash = new byte[32];
+            data.get(hash);
+            if (!Arrays.equals(hash, sourceHash(source))) {
+                throw new StaleAstException("Written for a different source");
+            }
+            return new Reader(data, source).readProgram();
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated or corrupt .catast file", e);
+        }
+    }
+
+    private static byte[] sourceHash(String source) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // every JVM has to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int readVarint(ByteBuffer data) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = data.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    public static class StaleAstException extends IOException {
+        public StaleAstException(String message) {
+            super(message);
+        }
+    }
+
+    private static class Output extends ByteArrayOutputStream {
+        Output() {
+            super(1 << 12);
+        }
+
+        void writeVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        void writeInt(int value) {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+
+        @Override
+        public void write(byte[] bytes) {
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+    private static class Writer {
+        final Output nodes = new Output();
+        final Map<String, Integer> strings = new HashMap<>();
+        final List<String> stringList = new ArrayList<>();
+        // by token index, so the views of one source token share an entry
+        final Map<Integer, Token> tokens = new HashMap<>();
+        int lastTokenIndex = 0;
+
+        void writeNode(ParseElement element) {
+            if (element instanceof CatScriptProgram) {
+                CatScriptProgram program = (CatScriptProgram) element;
+                if (program.isExpression()) {
+                    begin(PROGRAM_EXPRESSION, program);
+                    writeNode(program.getExpression());
+                } else {
+                    begin(PROGRAM_STATEMENTS, program);
+                    nodes.writeVarint(program.getFrameSize());
+                    writeNodes(program.getStatements());
+                }
+            } else if (element instanceof FunctionDefinitionStatement) {
+                FunctionDefinitionStatement function = (FunctionDefinitionStatement) element;
+                begin(FUNCTION_DEFINITION, function);
+                writeString(function.getName());
+                writeType(function.getType());
+                nodes.writeVarint(function.getParameterCount());
+                for (int i = 0; i < function.getParameterCount(); i++) {
+                    writeString(function.getParameterName(i));
+                    writeType(function.getParameterType(i));
+                }
+                nodes.writeVarint(function.getFrameSize());
+                writeNodes(function.getBody());
+            } else if (element instanceof VariableStatement) {
+                VariableStatement variable = (VariableStatement) element;
+                begin(VARIABLE, variable);
+                writeString(variable.getVariableName());
+                writeType(variable.getExplicitType());
+                writeType(variable.getType());
+                nodes.writeVarint(variable.getSlot());
+                writeNode(variable.getExpression());
+            } else if (element instanceof AssignmentStatement) {
+                AssignmentStatement assignment = (AssignmentStatement) element;
+                begin(ASSIGNMENT, assignment);
+                writeString(assignment.getVariableName());
+                nodes.writeVarint(assignment.getFrameDepth());
+                nodes.writeVarint(assignment.getSlot());
+                writeNode(assignment.getExpression());
+            } else if (element instanceof PrintStatement) {
+                begin(PRINT, element);
+                writeNode(((PrintStatement) element).getExpression());
+            } else if (element instanceof IfStatement) {
+                IfStatement ifStatement = (IfStatement) element;
+                begin(IF, ifStatement);
+                writeNode(ifStatement.getExpression());
+                writeNodes(ifStatement.getTrueStatements());
+                writeNodes(ifStatement.getElseStatements());
+            } else if (element instanceof ForStatement) {
+                ForStatement forStatement = (ForStatement) element;
+                begin(FOR, forStatement);
+                writeString(forStatement.getVariableName());
+                nodes.writeVarint(forStatement.getSlot());
+                writeNode(forStatement.getExpression());
+                writeNodes(forStatement.getBody());
+            } else if (element instanceof ReturnStatement) {
+                ReturnStatement returnStatement = (ReturnStatement) element;
+                if (returnStatement.getExpression() == null) {
+                    begin(RETURN_VOID, returnStatement);
+                } else {
+                    begin(RETURN_VALUE, returnStatement);
+                    writeNode(returnStatement.getExpression());
+                }
+            } else if (element instanceof FunctionCallStatement) {
+                begin(FUNCTION_CALL_STATEMENT, element);
+                writeNode(((FunctionCallStatement) element).getExpression());
+            } else if (element instanceof AdditiveExpression) {
+                AdditiveExpression additive = (AdditiveExpression) element;
+                writeBinary(ADDITIVE, additive, additive.isAdd() ? PLUS : MINUS,
+                        additive.getLeftHandSide(), additive.getRightHandSide());
+            } else if (element instanceof FactorExpression) {
+                FactorExpression factor = (FactorExpression) element;
+                writeBinary(FACTOR, factor, factor.isMultiply() ? STAR : SLASH,
+                        factor.getLeftHandSide(), factor.getRightHandSide());
+            } else if (element instanceof ComparisonExpression) {
+                ComparisonExpression comparison = (ComparisonExpression) element;
+                writeBinary(COMPARISON, comparison, comparisonOperator(comparison),
+                        comparison.getLeftHandSide(), comparison.getRightHandSide());
+            } else if (element instanceof EqualityExpression) {
+                EqualityExpression equality = (EqualityExpression) element;
+                writeBinary(EQUALITY, equality, equality.isEqual() ? EQUAL_EQUAL : BANG_EQUAL,
+                        equality.getLeftHandSide(), equality.getRightHandSide());
+            } else if (element instanceof UnaryExpression) {
+                UnaryExpression unary = (UnaryExpression) element;
+                begin(UNARY, unary);
+                nodes.write(unary.isMinus() ? MINUS.ordinal() : NOT.ordinal());
+                writeNode(unary.getRightHandSide());
+            } else if (element instanceof ParenthesizedExpression) {
+                begin(PARENTHESIZED, element);
+                writeNode(((ParenthesizedExpression) element).getExpression());
+            } else if (element instanceof IdentifierExpression) {
+                IdentifierExpression identifier = (IdentifierExpression) element;
+                begin(IDENTIFIER_REFERENCE, identifier);
+                writeString(identifier.getName());
+                writeType(identifier.getType());
+                nodes.writeVarint(identifier.getFrameDepth());
+                nodes.writeVarint(identifier.getSlot());
+            } else if (element instanceof FunctionCallExpression) {
+                FunctionCallExpression call = (FunctionCallExpression) element;
+                begin(FUNCTION_CALL, call);
+                writeString(call.getName());
+                writeType(call.getType());
+                writeNodes(call.getArguments());
+            } else if (element instanceof ListLiteralExpression) {
+                ListLiteralExpression list = (ListLiteralExpression) element;
+                begin(LIST_LITERAL, list);
+                writeType(list.getType());
+                writeNodes(list.getValues());
+            } else if (element instanceof IntegerLiteralExpression) {
+                begin(INTEGER_LITERAL, element);
+                // zig-zag, so negative values stay short
+                int value = ((IntegerLiteralExpression) element).getValue();
+                nodes.writeVarint((value << 1) ^ (value >> 31));
+            } else if (element instanceof StringLiteralExpression) {
+                begin(STRING_LITERAL, element);
+                writeString(((StringLiteralExpression) element).getValue());
+            } else if (element instanceof BooleanLiteralExpression) {
+                begin(BOOLEAN_LITERAL, element);
+                nodes.write(((BooleanLiteralExpression) element).getValue() ? 1 : 0);
+            } else if (element instanceof NullLiteralExpression) {
+                begin(NULL_LITERAL, element);
+            } else {
+                throw new IllegalArgumentException("Only verified programs can be written, found " + element);
+            }
+        }
+
+        private void writeNodes(List<? extends ParseElement> elements) {
+            nodes.writeVarint(elements.size());
+            for (ParseElement element : elements) {
+                writeNode(element);
+            }
+        }
+
+        private void writeBinary(int kind, Expression expression, TokenType operator, Expression leftHandSide,
+                                 Expression rightHandSide) {
+            begin(kind, expression);
+            nodes.write(operator.ordinal());
+            writeNode(leftHandSide);
+            writeNode(rightHandSide);
+        }
+
+        private TokenType comparisonOperator(ComparisonExpression comparison) {
+            if (comparison.isLessThan()) {
+                return LESS;
+            } else if (comparison.isLessThanOrEqual()) {
+                return LESS_EQUAL;
+            } else if (comparison.isGreater()) {
+                return GREATER;
+            } else {
+                return GREATER_EQUAL;
+            }
+        }
+
+        private void begin(int kind, ParseElement element) {
+            nodes.write(kind);
+            writeToken(element.getStart());
+            writeToken(element.getEnd());
+        }
+
+        // 0 for no token, otherwise the zig-zagged distance from the last token written plus one
+        private void writeToken(Token token) {
+            if (token == null) {
+                nodes.writeVarint(0);
+                return;
+            }
+            tokens.putIfAbsent(token.getIndex(), token);
+            int delta = token.getIndex() - lastTokenIndex;
+            nodes.writeVarint(((delta << 1) ^ (delta >> 31)) + 1);
+            lastTokenIndex = token.getIndex();
+        }
+
+        // 0 for null, otherwise the string table entry plus one
+        private void writeString(String string) {
+            if (string == null) {
+                nodes.writeVarint(0);
+                return;
+            }
+            Integer id = strings.get(string);
+            if (id == null) {
+                id = stringList.size();
+                strings.put(string, id);
+                stringList.add(string);
+            }
+            nodes.writeVarint(id + 1);
+        }
+
+        private void writeType(CatscriptType type) {
+            if (type instanceof CatscriptType.ListType) {
+                nodes.write(LIST_TYPE);
+                writeType(((CatscriptType.ListType) type).getComponentType());
+                return;
+            }
+            int tag = Arrays.asList(SIMPLE_TYPES).indexOf(type);
+            if (tag < 0) {
+                throw new IllegalArgumentException("Unknown type " + type);
+            }
+            nodes.write(tag);
+        }
+    }
+
+    private static class Reader {
+        private final ByteBuffer data;
+        private final String[] strings;
+        // by token index
+        private final Token[] tokens;
+        private int lastTokenIndex = 0;
+        private FunctionDefinitionStatement currentFunction;
+
+        Reader(ByteBuffer data, String source) {
+            this.data = data;
+            strings = new String[readVarint(data)];
+            for (int i = 0; i < strings.length; i++) {
+                int length = readVarint(data);
+                strings[i] = new String(data.array(), data.position(), length, StandardCharsets.UTF_8);
+                data.position(data.position() + length);
+            }
+            LineIndex lines = LineIndex.of(source);
+            int count = readVarint(data);
+            int index = 0;
+            int start = 0;
+            int line = 0;
+            List<Token> table = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                TokenType type = TOKEN_TYPES[data.get()];
+                index += readVarint(data);
+                start += readVarint(data);
+                int end = start + readVarint(data);
+                line += readVarint(data);
+                int lineOffset = readVarint(data);
+                table.add(Token.restore(lines, type, index, start, end, line, lineOffset));
+            }
+            tokens = new Token[index + 1];
+            for (Token token : table) {
+                tokens[token.getIndex()] = token;
+            }
+        }
+
+        CatScriptProgram readProgram() throws IOException {
+            int kind = data.get();
+            CatScriptProgram program = new CatScriptProgram();
+            readTokens(program);
+            if (kind == PROGRAM_EXPRESSION) {
+                program.setExpression(readExpression());
+            } else if (kind == PROGRAM_STATEMENTS) {
+                program.setFrameSize(readVarint(data));
+                int count = readVarint(data);
+                for (int i = 0; i < count; i++) {
+                    program.addStatement(readStatement());
+                }
+            } else {
+                throw new IOException("Expected a program, found node kind " + kind);
+            }
+            return program;
+        }
+
+        private Statement readStatement() throws IOException {
+            int kind = data.get();
+            Token start = readToken();
+            Token end = readToken();
+            Statement statement;
+            switch (kind) {
+                case FUNCTION_DEFINITION: {
+                    FunctionDefinitionStatement function = new FunctionDefinitionStatement();
+                    function.setName(readString());
+                    CatscriptType returnType = readType();
+                    int parameterCount = readVarint(data);
+                    for (int i = 0; i < parameterCount; i++) {
+                        function.addParameter(readString(), typeLiteral(readType()));
+                    }
+                    function.setType(typeLiteral(returnType));
+                    function.setFrameSize(readVarint(data));
+                    currentFunction = function;
+                    try {
+                        function.setBody(readStatements());
+                    } finally {
+                        currentFunction = null;
+                    }
+                    statement = function;
+                    break;
+                }
+                case VARIABLE: {
+                    VariableStatement variable = new VariableStatement();
+                    variable.setVariableName(readString());
+                    variable.setExplicitType(readType());
+                    variable.setType(readType());
+                    variable.setSlot(readVarint(data));
+                    variable.setExpression(readExpression());
+                    statement = variable;
+                    break;
+                }
+                case ASSIGNMENT: {
+                    AssignmentStatement assignment = new AssignmentStatement();
+                    assignment.setVariableName(readString());
+                    assignment.setSlot(readVarint(data), readVarint(data));
+                    assignment.setExpression(readExpression());
+                    statement = assignment;
+                    break;
+                }
+                case PRINT: {
+                    PrintStatement print = new PrintStatement();
+                    print.setExpression(readExpression());
+                    statement = print;
+                    break;
+                }
+                case IF: {
+                    IfStatement ifStatement = new IfStatement();
+                    ifStatement.setExpression(readExpression());
+                    ifStatement.setTrueStatements(readStatements());
+                    ifStatement.setElseStatements(readStatements());
+                    statement = ifStatement;
+                    break;
+                }
+                case FOR: {
+                    ForStatement forStatement = new ForStatement();
+                    forStatement.setVariableName(readString());
+                    forStatement.setSlot(readVarint(data));
+                    forStatement.setExpression(readExpression());
+                    forStatement.setBody(readStatements());
+                    statement = forStatement;
+                    break;
+                }
+                case RETURN_VALUE:
+                case RETURN_VOID: {
+                    ReturnStatement returnStatement = new ReturnStatement();
+                    returnStatement.setFunctionDefinition(currentFunction);
+                    if (kind == RETURN_VALUE) {
+                        returnStatement.setExpression(readExpression());
+                    }
+                    statement = returnStatement;
+                    break;
+                }
+                case FUNCTION_CALL_STATEMENT:
+                    statement = new FunctionCallStatement((FunctionCallExpression) readExpression());
+                    break;
+                default:
+                    throw new IOException("Expected a statement, found node kind " + kind);
+            }
+            statement.setStart(start);
+            statement.setEnd(end);
+            return statement;
+        }
+
+        private List<Statement> readStatements() throws IOException {
+            int count = readVarint(data);
+            List<Statement> statements = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                statements.add(readStatement());
+            }
+            return statements;
+        }
+
+        private Expression readExpression() throws IOException {
+            int kind = data.get();
+            Token start = readToken();
+            Token end = readToken();
+            Expression expression;
+            switch (kind) {
+                case ADDITIVE: {
+                    TokenType operator = TOKEN_TYPES[data.get()];
+                    expression = new AdditiveExpression(operator, readExpression(), readExpression());
+                    break;
+                }
+                case FACTOR: {
+                    TokenType operator = TOKEN_TYPES[data.get()];
+                    expression = new FactorExpression(operator, readExpression(), readExpression());
+                    break;
+                }
+                case COMPARISON: {
+                    TokenType operator = TOKEN_TYPES[data.get()];
+                    expression = new ComparisonExpression(operator, readExpression(), readExpression());
+                    break;
+                }
+                case EQUALITY: {
+                    TokenType operator = TOKEN_TYPES[data.get()];
+                    expression = new EqualityExpression(operator, readExpression(), readExpression());
+                    break;
+                }
+                case UNARY: {
+                    TokenType operator = TOKEN_TYPES[data.get()];
+                    expression = new UnaryExpression(operator, readExpression());
+                    break;
+                }
+                case PARENTHESIZED:
+                    expression = new ParenthesizedExpression(readExpression());
+                    break;
+                case IDENTIFIER_REFERENCE: {
+                    IdentifierExpression identifier = new IdentifierExpression(readString());
+                    identifier.setType(readType());
+                    identifier.setSlot(readVarint(data), readVarint(data));
+                    expression = identifier;
+                    break;
+                }
+                case FUNCTION_CALL: {
+                    String name = readString();
+                    CatscriptType type = readType();
+                    FunctionCallExpression call = new FunctionCallExpression(name, readExpressions());
+                    call.setType(type);
+                    expression = call;
+                    break;
+                }
+                case LIST_LITERAL: {
+                    CatscriptType type = readType();
+                    ListLiteralExpression list = new ListLiteralExpression(readExpressions());
+                    list.setType(type);
+                    expression = list;
+                    break;
+                }
+                case INTEGER_LITERAL: {
+                    int zigZag = readVarint(data);
+                    expression = new IntegerLiteralExpression(Integer.toString((zigZag >>> 1) ^ -(zigZag & 1)));
+                    break;
+                }
+                case STRING_LITERAL:
+                    expression = new StringLiteralExpression(readString());
+                    break;
+                case BOOLEAN_LITERAL:
+                    expression = new BooleanLiteralExpression(data.get() != 0);
+                    break;
+                case NULL_LITERAL:
+                    expression = new NullLiteralExpression();
+                    break;
+                default:
+                    throw new IOException("Expected an expression, found node kind " + kind);
+            }
+            expression.setStart(start);
+            expression.setEnd(end);
+            return expression;
+        }
+
+        private List<Expression> readExpressions() throws IOException {
+            int count = readVarint(data);
+            List<Expression> expressions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                expressions.add(readExpression());
+            }
+            return expressions;
+        }
+
+        private void readTokens(ParseElement element) {
+            element.setStart(readToken());
+            element.setEnd(readToken());
+        }
+
+        private Token readToken() {
+            int ref = readVarint(data);
+            if (ref == 0) {
+                return null;
+            }
+            int zigZag = ref - 1;
+            lastTokenIndex += (zigZag >>> 1) ^ -(zigZag & 1);
+            return tokens[lastTokenIndex];
+        }
+
+        private String readString() {
+            int id = readVarint(data);
+            return id == 0 ? null : strings[id - 1];
+        }
+
+        private CatscriptType readType() throws IOException {
+            int tag = data.get();
+            if (tag == LIST_TYPE) {
+                return CatscriptType.getListType(readType());
+            }
+            if (tag < 0 || tag > LIST_TYPE) {
+                throw new IOException("Unknown type tag " + tag);
+            }
+            return SIMPLE_TYPES[tag];
+        }
+
+        private TypeLiteral typeLiteral(CatscriptType type) {
+            TypeLiteral literal = new TypeLiteral();
+            literal.setType(type);
+            return literal;
+        }
+    }
+}
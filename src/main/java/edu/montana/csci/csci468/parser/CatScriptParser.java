@@ -5,6 +5,7 @@ import edu.montana.csci.csci468.parser.expressions.*;
 import edu.montana.csci.csci468.parser.statements.*;
 import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
 import edu.montana.csci.csci468.tokenizer.Token;
+import edu.montana.csci.csci468.tokenizer.TokenCursor;
 import edu.montana.csci.csci468.tokenizer.TokenList;
 import edu.montana.csci.csci468.tokenizer.TokenType;
 import org.apache.commons.lang.ObjectUtils;
@@ -13,37 +14,251 @@ import java.lang.reflect.Parameter;
 import java.lang.reflect.Type;
 import java.security.Policy;
 import java.security.spec.ECParameterSpec;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import static edu.montana.csci.csci468.tokenizer.TokenType.*;
 
 public class CatScriptParser {
 
+    // tokens that can only start a statement, the rest of FIRST(statement) is IDENTIFIER
+    private static final Set<TokenType> STATEMENT_ONLY_FIRST = EnumSet.of(FOR, PRINT, VAR, IF, RETURN, FUNCTION);
+    private static final Set<TokenType> UNARY_OPERATORS = EnumSet.of(MINUS, NOT);
+    private static final Set<TokenType> BOOLEAN_LITERALS = EnumSet.of(TRUE, FALSE);
+
+    // how tightly each binary operator binds its operands, 0 for every other token
+    private static final int EQUALITY_BINDING_POWER = 1;
+    private static final int COMPARISON_BINDING_POWER = 2;
+    private static final int ADDITIVE_BINDING_POWER = 3;
+    private static final int FACTOR_BINDING_POWER = 4;
+    private static final int UNARY_BINDING_POWER = 5;
+    private static final int[] BINARY_BINDING_POWERS = new int[TokenType.values().length];
+    // verify(), execute() and the transpilers recurse once per level of the tree, so sources
+    // nested deeper than this are refused, budget or not
+    public static final int MAX_DEPTH = 1000;
+    static {
+        BINARY_BINDING_POWERS[BANG_EQUAL.ordinal()] = EQUALITY_BINDING_POWER;
+        BINARY_BINDING_POWERS[EQUAL_EQUAL.ordinal()] = EQUALITY_BINDING_POWER;
+        BINARY_BINDING_POWERS[GREATER.ordinal()] = COMPARISON_BINDING_POWER;
+        BINARY_BINDING_POWERS[GREATER_EQUAL.ordinal()] = COMPARISON_BINDING_POWER;
+        BINARY_BINDING_POWERS[LESS.ordinal()] = COMPARISON_BINDING_POWER;
+        BINARY_BINDING_POWERS[LESS_EQUAL.ordinal()] = COMPARISON_BINDING_POWER;
+        BINARY_BINDING_POWERS[PLUS.ordinal()] = ADDITIVE_BINDING_POWER;
+        BINARY_BINDING_POWERS[MINUS.ordinal()] = ADDITIVE_BINDING_POWER;
+        BINARY_BINDING_POWERS[SLASH.ordinal()] = FACTOR_BINDING_POWER;
+        BINARY_BINDING_POWERS[STAR.ordinal()] = FACTOR_BINDING_POWER;
+    }
+
     private TokenList tokens;
     private FunctionDefinitionStatement currentFunctionDefinition;
+    // top level functions being parsed on a pool, in source order
+    private ArrayDeque<PendingFunction> pendingFunctions;
+    private ParseBudget budget;
+    // statements and expressions being parsed, outermost first
+    private int depth = 0;
+    private int maxDepth = MAX_DEPTH;
+    // the height of the tree of the expression parsed last, 0 for a literal
+    private int height = 0;
 
     public CatScriptProgram parse(String source) {
-        tokens = new CatScriptTokenizer(source).getTokens();
+        return parse(new CatScriptTokenizer(source).getTokens());
+    }
+
+    public CatScriptProgram parse(TokenList tokenList) {
+        tokens = tokenList;
 
-        // first parse an expression
         CatScriptProgram program = new CatScriptProgram();
         program.setStart(tokens.getCurrentToken());
-        Expression expression = parseExpression();
-        if (tokens.hasMoreTokens()) {
-            tokens.reset();
-            while (tokens.hasMoreTokens()) {
-                program.addStatement(parseProgramStatement());
-            }
+        if (startsStatementProgram()) {
+            parseProgramStatements(program);
         } else {
-            program.setExpression(expression);
+            Expression expression = parseExpression();
+            if (tokens.hasMoreTokens()) {
+                // not a program of either kind, report it the way the statement parser does
+                tokens.reset();
+                parseProgramStatements(program);
+            } else {
+                program.setExpression(expression);
+            }
         }
 
         program.setEnd(tokens.getCurrentToken());
         return program;
     }
 
+    public CatScriptProgram parse(TokenList tokenList, ParseBudget budget) {
+        return parse(tokenList, null, budget);
+    }
+
+    public CatScriptProgram parse(TokenList tokenList, ForkJoinPool pool) {
+        return parse(tokenList, pool, null);
+    }
+
+    /**
+     * Parses like parse(tokenList), with either argument optional.
+     * <p>
+     * With a pool, top level functions are found by matching braces up front and parsed on
+     * the pool while this thread parses the rest of the program.  A function whose parse
+     * does not end on its closing brace is parsed again here, so the tree and its errors
+     * are the same as parse(tokenList) gives.  A streaming token list is parsed on this
+     * thread alone.
+     * <p>
+     * With a budget, this throws ParseBudgetExceededException as soon as the source turns
+     * out to have more tokens, nesting or errors than the budget allows, or the budget runs
+     * out of time.  Nesting counts the statements and the levels of the expression trees
+     * around each element, and is never allowed past MAX_DEPTH even without a budget.  Functions parsed on the pool check the same budget, and the errors of a
+     * function that is parsed again are counted twice.
+     */
+    public CatScriptProgram parse(TokenList tokenList, ForkJoinPool pool, ParseBudget budget) {
+        if (budget != null && !tokenList.isStreaming()) {
+            budget.checkTokens(tokenList.size(), null);
+        }
+        this.budget = budget;
+        this.maxDepth = maxDepth(budget);
+        if (pool != null && !tokenList.isStreaming()) {
+            pendingFunctions = parseFunctionsAhead(tokenList, pool, budget);
+        }
+        try {
+            return parse(tokenList);
+        } finally {
+            if (pendingFunctions != null) {
+                for (PendingFunction function : pendingFunctions) {
+                    function.cursor.abandon();
+                }
+                pendingFunctions = null;
+            }
+            this.budget = null;
+            maxDepth = MAX_DEPTH;
+            depth = 0;
+        }
+    }
+
+    private static int maxDepth(ParseBudget budget) {
+        return budget == null ? MAX_DEPTH : Math.min(budget.getMaxDepth(), MAX_DEPTH);
+    }
+
+    private ArrayDeque<PendingFunction> parseFunctionsAhead(TokenList tokenList, ForkJoinPool pool, ParseBudget budget) {
+        ArrayDeque<PendingFunction> pending = new ArrayDeque<>();
+        int count = tokenList.size();
+        int i = tokenList.getPosition();
+        while (i < count) {
+            int end = tokenList.getType(i) == FUNCTION ? endOfFunction(tokenList, i) : -1;
+            if (end < 0) {
+                i++;
+                continue;
+            }
+            TokenCursor cursor = tokenList.cursor(i, end);
+            pending.add(new PendingFunction(i, cursor,
+                    pool.submit(() -> new CatScriptParser().parseFunctionOn(cursor, budget))));
+            i = end;
+        }
+        return pending;
+    }
+
+    // the index just past the brace closing the body of the function at start, or -1
+    private static int endOfFunction(TokenList tokenList, int start) {
+        int i = start + 1;
+        TokenType type = tokenList.getType(i);
+        while (type != LEFT_BRACE) {
+            if (type == FUNCTION || type == EOF) {
+                return -1;
+            }
+            type = tokenList.getType(++i);
+        }
+        int depth = 0;
+        do {
+            if (type == LEFT_BRACE) {
+                depth++;
+            } else if (type == RIGHT_BRACE) {
+                depth--;
+            } else if (type == EOF) {
+                return -1;
+            }
+            type = tokenList.getType(++i);
+        } while (depth > 0);
+        return i;
+    }
+
+    // as a top level statement, so at the depth parseStatement() would give it
+    private Statement parseFunctionOn(TokenList cursor, ParseBudget budget) {
+        tokens = cursor;
+        this.budget = budget;
+        this.maxDepth = maxDepth(budget);
+        enter();
+        try {
+            return parseFunctionDefinitionStatement();
+        } finally {
+            leave();
+        }
+    }
+
+    // the function parsed on the pool that starts at the current token, if it can be used
+    private Statement takeParsedFunction() {
+        int position = tokens.getPosition();
+        PendingFunction next = pendingFunctions.peek();
+        while (next != null && next.start < position) {
+            // swallowed by the statement before it
+            pendingFunctions.poll().cursor.abandon();
+            next = pendingFunctions.peek();
+        }
+        if (next == null || next.start != position) {
+            return null;
+        }
+        pendingFunctions.poll();
+        Statement function;
+        try {
+            function = next.parsed.join();
+        } catch (ParseBudgetExceededException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            return null;
+        }
+        if (next.cursor.readPastEnd() || next.cursor.getPosition() != next.cursor.getEnd()) {
+            return null;
+        }
+        tokens.setPosition(next.cursor.getEnd());
+        return function;
+    }
+
+    private static class PendingFunction {
+        final int start;
+        final TokenCursor cursor;
+        final ForkJoinTask<Statement> parsed;
+
+        PendingFunction(int start, TokenCursor cursor, ForkJoinTask<Statement> parsed) {
+            this.start = start;
+            this.cursor = cursor;
+            this.parsed = parsed;
+        }
+    }
+
+    // an identifier followed by '=' or '(' is parsed as an assignment or a call statement, so a
+    // program like foo(1) + 2 deliberately goes down the statement path and is reported there
+    private boolean startsStatementProgram() {
+        if (tokens.match(STATEMENT_ONLY_FIRST)) {
+            return true;
+        }
+        if (tokens.match(IDENTIFIER)) {
+            TokenType next = tokens.lookahead(1);
+            return next == EQUAL || next == LEFT_PAREN;
+        }
+        return false;
+    }
+
+    private void parseProgramStatements(CatScriptProgram program) {
+        while (tokens.hasMoreTokens()) {
+            Statement function = pendingFunctions == null ? null : takeParsedFunction();
+            program.addStatement(function != null ? function : parseProgramStatement());
+        }
+    }
+
     public CatScriptProgram parseAsExpression(String source) {
         tokens = new CatScriptTokenizer(source).getTokens();
         CatScriptProgram program = new CatScriptProgram();
@@ -65,7 +280,7 @@ public class CatScriptParser {
             parseReturnStatement();
         statement = parseFunctionDefinitionStatement();
         if (statement != null) return statement;
-        return new SyntaxErrorStatement(tokens.consumeToken());
+        return countErrors(new SyntaxErrorStatement(tokens.consumeToken()));
     }
 
     private Statement parseFunctionDefinitionStatement() {
@@ -76,7 +291,7 @@ public class CatScriptParser {
 
             Token functionName = require(IDENTIFIER, functionDefinitionStatement);
             functionDefinitionStatement.setName(functionName.getStringValue());
-            require(LEFT_PAREN, functionDefinitionStatement);
+            expect(LEFT_PAREN, functionDefinitionStatement);
 
             if (tokens.match(IDENTIFIER)) {
                 String currentName = tokens.consumeToken().getStringValue();
@@ -106,7 +321,7 @@ public class CatScriptParser {
                 }
             }
 
-            require(RIGHT_PAREN, functionDefinitionStatement);
+            expect(RIGHT_PAREN, functionDefinitionStatement);
 
             if (tokens.matchAndConsume(COLON)) {
                 TypeLiteral explicitType = parseTypeExpression();
@@ -117,7 +332,7 @@ public class CatScriptParser {
                 functionDefinitionStatement.setType(voidType);
             }
 
-            require(LEFT_BRACE, functionDefinitionStatement);
+            expect(LEFT_BRACE, functionDefinitionStatement);
 
             currentFunctionDefinition = functionDefinitionStatement;
             List<Statement> statements = new ArrayList<>();
@@ -125,7 +340,7 @@ public class CatScriptParser {
             try {
                 Statement currentStatement;
                 while (!tokens.match(RIGHT_BRACE) && !tokens.match(EOF)) {
-                    currentStatement = parseStatement();
+                    currentStatement = parseBlockStatement();
                     statements.add(currentStatement);
                 }
             } finally {
@@ -142,6 +357,25 @@ public class CatScriptParser {
     }
 
     private Statement parseStatement() {
+        enter();
+        try {
+            return parseAnyStatement();
+        } finally {
+            leave();
+        }
+    }
+
+    // a token that cannot start a statement inside a block would never be consumed, so it is
+    // reported and skipped the way parseProgramStatement() does at the top level
+    private Statement parseBlockStatement() {
+        Statement statement = parseStatement();
+        if (statement == null && !tokens.match(RIGHT_BRACE) && !tokens.match(EOF)) {
+            return countErrors(new SyntaxErrorStatement(tokens.consumeToken()));
+        }
+        return statement;
+    }
+
+    private Statement parseAnyStatement() {
         if (tokens.match(FOR)) return parseForStatement();
         else if (tokens.match(PRINT)) return parsePrintStatement();
         else if (tokens.match(VAR)) return parseVarStatement();
@@ -159,9 +393,10 @@ public class CatScriptParser {
     }
 
     private Statement parseFunctionCallStatement(String name) {
-        FunctionCallStatement functionCallStatement = null;
-
-        require(LEFT_PAREN, functionCallStatement);
+        // the statement is only built once its arguments are parsed, so a missing '(' is noted
+        // here and reported on it afterwards
+        Token missingParen = tokens.match(LEFT_PAREN) ? null : tokens.getCurrentToken();
+        tokens.matchAndConsume(LEFT_PAREN);
         List<Expression> exprs = new ArrayList<>();
 
         if (!tokens.match(RIGHT_PAREN) && !tokens.match(EOF)) {
@@ -174,10 +409,12 @@ public class CatScriptParser {
             }
         }
 
-        require(RIGHT_PAREN, functionCallStatement);
-
         FunctionCallExpression functionCallExpression = new FunctionCallExpression(name, exprs);
-        functionCallStatement = new FunctionCallStatement(functionCallExpression);
+        FunctionCallStatement functionCallStatement = new FunctionCallStatement(functionCallExpression);
+        if (missingParen != null) {
+            error(functionCallStatement, ErrorType.UNEXPECTED_TOKEN, missingParen);
+        }
+        expect(RIGHT_PAREN, functionCallStatement);
 
         return functionCallStatement;
     }
@@ -186,7 +423,7 @@ public class CatScriptParser {
         AssignmentStatement assignmentStatement = new AssignmentStatement();
 
         assignmentStatement.setVariableName(name);
-        require(EQUAL, assignmentStatement);
+        expect(EQUAL, assignmentStatement);
         Expression expression = parseExpression();
 
         assignmentStatement.setExpression(expression);
@@ -216,15 +453,15 @@ public class CatScriptParser {
         ForStatement forStatement = new ForStatement();
         forStatement.setStart(tokens.consumeToken());
 
-        require(LEFT_PAREN, forStatement);
+        expect(LEFT_PAREN, forStatement);
         Token varName = require(IDENTIFIER, forStatement);
         forStatement.setVariableName(varName.getStringValue());
-        require(IN, forStatement);
+        expect(IN, forStatement);
         Expression expression = parseExpression();
         forStatement.setExpression(expression);
 
-        require(RIGHT_PAREN, forStatement);
-        require(LEFT_BRACE, forStatement);
+        expect(RIGHT_PAREN, forStatement);
+        expect(LEFT_BRACE, forStatement);
 
         List<Statement> body = new ArrayList<>();
 
@@ -232,19 +469,24 @@ public class CatScriptParser {
             do {
                 tokens.consumeToken();
                 Statement statement = parseStatement();
-                body.add(statement);
+                if (statement != null) {
+                    body.add(statement);
+                }
             } while (tokens.match(LEFT_BRACE));
 
-            require(RIGHT_BRACE, forStatement);
+            expect(RIGHT_BRACE, forStatement);
         }
 
         do {
-            Statement statement = parseStatement();
-            body.add(statement);
+            Statement statement = parseBlockStatement();
+            // null for an empty body or one cut off at the end of the input
+            if (statement != null) {
+                body.add(statement);
+            }
         } while (!tokens.match(RIGHT_BRACE) && !tokens.match(EOF));
 
         forStatement.setBody(body);
-        require(RIGHT_BRACE, forStatement);
+        expect(RIGHT_BRACE, forStatement);
 
         return forStatement;
     }
@@ -262,7 +504,7 @@ public class CatScriptParser {
             variableStatement.setExplicitType(explicitType.getType());
         }
 
-        require(EQUAL, variableStatement);
+        expect(EQUAL, variableStatement);
 
         Expression varExpression = parseExpression();
         variableStatement.setExpression(varExpression);
@@ -274,10 +516,10 @@ public class CatScriptParser {
         IfStatement ifStatement = new IfStatement();
         ifStatement.setStart(tokens.consumeToken());
 
-        require(LEFT_PAREN, ifStatement);
+        expect(LEFT_PAREN, ifStatement);
         ifStatement.setExpression((parseExpression()));
-        require(RIGHT_PAREN, ifStatement);
-        require(LEFT_BRACE, ifStatement);
+        expect(RIGHT_PAREN, ifStatement);
+        expect(LEFT_BRACE, ifStatement);
 
 
         List<Statement> statements = new ArrayList<>();
@@ -286,12 +528,12 @@ public class CatScriptParser {
             if (tokens.match(EOF)) {
                 break;
             } else {
-                statement = parseStatement();
+                statement = parseBlockStatement();
                 statements.add(statement);
             }
         } while (!tokens.match(RIGHT_BRACE));
 
-        require(RIGHT_BRACE, ifStatement);
+        expect(RIGHT_BRACE, ifStatement);
         ifStatement.setTrueStatements(statements);
 
         if (tokens.matchAndConsume(ELSE)) {
@@ -302,12 +544,12 @@ public class CatScriptParser {
                     if (tokens.match(EOF)) {
                         break;
                     } else {
-                        elseStatement = parseStatement();
+                        elseStatement = parseBlockStatement();
                         elseStatements.add(elseStatement);
                     }
                 } while (!tokens.match(RIGHT_BRACE));
 
-                require(RIGHT_BRACE, ifStatement);
+                expect(RIGHT_BRACE, ifStatement);
                 ifStatement.setElseStatements(elseStatements);
             } else {
                 parseIfStatement();
@@ -321,7 +563,7 @@ public class CatScriptParser {
         PrintStatement printStatement = new PrintStatement();
         printStatement.setStart(tokens.consumeToken());
 
-        require(LEFT_PAREN, printStatement);
+        expect(LEFT_PAREN, printStatement);
 
         Expression expression = parseExpression();
         printStatement.setExpression(expression);
@@ -334,101 +576,177 @@ public class CatScriptParser {
     //  Expressions
     //============================================================
 
+    /**
+     * Operator precedence parsing with explicit operand and operator stacks, so neither long
+     * operator chains nor deep parenthesis nesting use Java stack frames.  The trees are the
+     * ones the equality > comparison > additive > factor > unary descent used to build.
+     */
     private Expression parseExpression() {
-        return parseEqualityExpression();
-    }
-
-    private TypeLiteral parseTypeExpression() {
-        if (tokens.match(IDENTIFIER)) {
-            TypeLiteral literal = new TypeLiteral();
-            Token token = tokens.consumeToken();
-
-            if (tokens.matchAndConsume(LESS)) {
-                CatscriptType listType = CatscriptType.getListType(parseTypeExpression().getType());
-                literal.setType(listType);
-                require(GREATER, literal);
-            } else if (token.getStringValue().equals("int")) literal.setType(CatscriptType.INT);
-            else if (token.getStringValue().equals("string")) literal.setType(CatscriptType.STRING);
-            else if (token.getStringValue().equals("bool")) literal.setType(CatscriptType.BOOLEAN);
-            else if (token.getStringValue().equals("object")) literal.setType(CatscriptType.OBJECT);
-            else if (token.getStringValue().equals("list")) literal.setType(CatscriptType.OBJECT);
-
-            return literal;
-        } else {
-            return null;
+        enter();
+        try {
+            return parseOperators();
+        } finally {
+            leave();
         }
     }
 
-    private Expression parseEqualityExpression() {
-        Expression expression = parseComparisonExpression();
-
-        while (tokens.match(BANG_EQUAL) || tokens.match(EQUAL_EQUAL)) {
-            Token operator = tokens.consumeToken();
-            final Expression rightHandSide = parseComparisonExpression();
-            EqualityExpression equalityExpression = new EqualityExpression(operator, expression, rightHandSide);
-            equalityExpression.setStart(expression.getStart());
-            equalityExpression.setEnd(expression.getEnd());
-
-            expression = equalityExpression;
+    private Expression parseOperators() {
+        ArrayDeque<Expression> operands = new ArrayDeque<>();
+        ArrayDeque<PendingOperator> operators = new ArrayDeque<>();
+        // the height of each operand's tree, bottom of the operand stack first
+        int[] heights = new int[8];
+        while (true) {
+            // prefix operators and open parens, then an operand
+            while (true) {
+                if (tokens.match(UNARY_OPERATORS)) {
+                    operators.push(new PendingOperator(tokens.consumeToken(), UNARY_BINDING_POWER));
+                } else if (tokens.matchAndConsume(LEFT_PAREN)) {
+                    operators.push(PendingOperator.PAREN);
+                } else {
+                    break;
+                }
+                // each pending operator puts the operand after it a level deeper
+                if (depth + operators.size() > maxDepth) {
+                    throw tooDeep(tokens.lastToken());
+                }
+            }
+            if (budget != null) {
+                budget.step(tokens.getCurrentToken());
+            }
+            Expression operand = parsePrimaryExpression();
+            if (operands.size() == heights.length) {
+                heights = Arrays.copyOf(heights, heights.length * 2);
+            }
+            heights[operands.size()] = height;
+            operands.push(operand);
+
+            // close parens, then a binary operator or the end of the expression
+            while (true) {
+                int bindingPower = BINARY_BINDING_POWERS[tokens.lookahead(0).ordinal()];
+                boolean reducedComparison = reduce(operands, heights, operators, bindingPower);
+                if (bindingPower > 0 && !(bindingPower == COMPARISON_BINDING_POWER && reducedComparison)) {
+                    operators.push(new PendingOperator(tokens.consumeToken(), bindingPower));
+                    break;
+                }
+                // comparisons do not chain, so a second one ends the operand like any other token
+                reduce(operands, heights, operators, 0);
+                if (operators.isEmpty()) {
+                    height = heights[0];
+                    return operands.pop();
+                }
+                // close the innermost paren, reporting a missing ')', and carry on outside of it
+                operators.pop();
+                ParenthesizedExpression parenthesizedExpression = new ParenthesizedExpression(operands.pop());
+                nest(heights, operands.size(), heights[operands.size()], tokens.getCurrentToken());
+                expect(RIGHT_PAREN, parenthesizedExpression);
+                operands.push(parenthesizedExpression);
+            }
         }
-        return expression;
     }
 
-    private Expression parseComparisonExpression() {
-        Expression expression = parseAdditiveExpression();
-
-        if (tokens.match(GREATER) || tokens.match(GREATER_EQUAL) || tokens.match(LESS) || tokens.match(LESS_EQUAL)) {
-            Token operator = tokens.consumeToken();
-            final Expression rightHandSide = parseAdditiveExpression();
-            ComparisonExpression comparisonExpression = new ComparisonExpression(operator, expression, rightHandSide);
-            comparisonExpression.setStart(expression.getStart());
-            comparisonExpression.setEnd(expression.getEnd());
-
-            expression = comparisonExpression;
+    // applies the pending operators that bind at least as tightly as bindingPower, up to the
+    // innermost open paren, returning whether one of them was a comparison
+    private boolean reduce(ArrayDeque<Expression> operands, int[] heights, ArrayDeque<PendingOperator> operators, int bindingPower) {
+        boolean reducedComparison = false;
+        while (!operators.isEmpty() && operators.peek() != PendingOperator.PAREN
+                && operators.peek().bindingPower >= Math.max(bindingPower, 1)) {
+            PendingOperator pending = operators.pop();
+            Token operator = pending.operator;
+            Expression rightHandSide = operands.pop();
+            int rightHeight = heights[operands.size()];
+            if (pending.bindingPower == UNARY_BINDING_POWER) {
+                nest(heights, operands.size(), rightHeight, operator);
+            } else {
+                nest(heights, operands.size() - 1, Math.max(heights[operands.size() - 1], rightHeight), operator);
+            }
+            Expression expression;
+            switch (pending.bindingPower) {
+                case UNARY_BINDING_POWER:
+                    expression = new UnaryExpression(operator, rightHandSide);
+                    expression.setStart(operator);
+                    expression.setEnd(rightHandSide.getEnd());
+                    break;
+                case FACTOR_BINDING_POWER: {
+                    Expression leftHandSide = operands.pop();
+                    expression = new FactorExpression(operator, leftHandSide, rightHandSide);
+                    expression.setStart(leftHandSide.getStart());
+                    expression.setEnd(leftHandSide.getEnd());
+                    break;
+                }
+                case ADDITIVE_BINDING_POWER: {
+                    Expression leftHandSide = operands.pop();
+                    expression = new AdditiveExpression(operator, leftHandSide, rightHandSide);
+                    expression.setStart(leftHandSide.getStart());
+                    expression.setEnd(rightHandSide.getEnd());
+                    break;
+                }
+                case COMPARISON_BINDING_POWER: {
+                    Expression leftHandSide = operands.pop();
+                    expression = new ComparisonExpression(operator, leftHandSide, rightHandSide);
+                    expression.setStart(leftHandSide.getStart());
+                    expression.setEnd(leftHandSide.getEnd());
+                    reducedComparison = true;
+                    break;
+                }
+                default: {
+                    Expression leftHandSide = operands.pop();
+                    expression = new EqualityExpression(operator, leftHandSide, rightHandSide);
+                    expression.setStart(leftHandSide.getStart());
+                    expression.setEnd(leftHandSide.getEnd());
+                }
+            }
+            operands.push(expression);
         }
-        return expression;
+        return reducedComparison;
     }
 
-    private Expression parseAdditiveExpression() {
-        Expression expression = parseFactorExpression();
-        while (tokens.match(PLUS, MINUS)) {
-            Token operator = tokens.consumeToken();
-            final Expression rightHandSide = parseFactorExpression();
-            AdditiveExpression additiveExpression = new AdditiveExpression(operator, expression, rightHandSide);
-            additiveExpression.setStart(expression.getStart());
-            additiveExpression.setEnd(rightHandSide.getEnd());
-            expression = additiveExpression;
+    // puts a node over the operand at index, whose tallest child has the given height; a chain
+    // like 1 + 1 + 1 only ever has one operator pending, so this is where its depth is counted
+    private void nest(int[] heights, int index, int childHeight, Token location) {
+        heights[index] = childHeight + 1;
+        if (depth + heights[index] > maxDepth) {
+            throw tooDeep(location);
         }
-        return expression;
     }
 
-    private Expression parseFactorExpression() {
-        Expression expression = parseUnaryExpression();
-        while (tokens.match(SLASH, STAR)) {
-            Token operator = tokens.consumeToken();
-            final Expression rightHandSide = parseUnaryExpression();
-            FactorExpression factorExpression = new FactorExpression(operator, expression, rightHandSide);
-            factorExpression.setStart(expression.getStart());
-            factorExpression.setEnd(expression.getEnd());
-            expression = factorExpression;
+    private static class PendingOperator {
+        static final PendingOperator PAREN = new PendingOperator(null, 0);
+
+        final Token operator;
+        final int bindingPower;
+
+        PendingOperator(Token operator, int bindingPower) {
+            this.operator = operator;
+            this.bindingPower = bindingPower;
         }
-        return expression;
     }
 
-    private Expression parseUnaryExpression() {
-        if (tokens.match(MINUS, NOT)) {
+    private TypeLiteral parseTypeExpression() {
+        if (tokens.match(IDENTIFIER)) {
+            TypeLiteral literal = new TypeLiteral();
             Token token = tokens.consumeToken();
-            Expression rhs = parseUnaryExpression();
-            UnaryExpression unaryExpression = new UnaryExpression(token, rhs);
-            unaryExpression.setStart(token);
-            unaryExpression.setEnd(rhs.getEnd());
-            return unaryExpression;
+
+            if (tokens.matchAndConsume(LESS)) {
+                TypeLiteral component = parseTypeExpression();
+                // an unknown or missing component is let through as object, the way an
+                // unknown type name on its own is
+                CatscriptType componentType = component == null ? null : component.getType();
+                literal.setType(CatscriptType.getListType(componentType == null ? CatscriptType.OBJECT : componentType));
+                expect(GREATER, literal);
+            } else if (token.getStringValue().equals("int")) literal.setType(CatscriptType.INT);
+            else if (token.getStringValue().equals("string")) literal.setType(CatscriptType.STRING);
+            else if (token.getStringValue().equals("bool")) literal.setType(CatscriptType.BOOLEAN);
+            else if (token.getStringValue().equals("object")) literal.setType(CatscriptType.OBJECT);
+            else if (token.getStringValue().equals("list")) literal.setType(CatscriptType.OBJECT);
+
+            return literal;
         } else {
-            return parsePrimaryExpression();
+            return null;
         }
     }
 
     private Expression parsePrimaryExpression() {
+        height = 0;
         if (tokens.match(STRING)) {
             String stringToken = tokens.consumeToken().getStringValue();
             StringLiteralExpression stringLiteralExpression = new StringLiteralExpression(stringToken);
@@ -438,7 +756,7 @@ public class CatScriptParser {
             IntegerLiteralExpression integerExpression = new IntegerLiteralExpression(integerToken.getStringValue());
             integerExpression.setToken(integerToken);
             return integerExpression;
-        } else if (tokens.match(TRUE) || tokens.match(FALSE)) {
+        } else if (tokens.match(BOOLEAN_LITERALS)) {
             Token booleanToken = tokens.consumeToken();
             BooleanLiteralExpression booleanLiteralExpression = new BooleanLiteralExpression(booleanToken.getType() == TRUE);
             booleanLiteralExpression.setStart(booleanToken);
@@ -446,32 +764,27 @@ public class CatScriptParser {
         } else if (tokens.matchAndConsume(NULL)) {
             Expression nullLiteralExpression = new NullLiteralExpression();
             return nullLiteralExpression;
-        } else if (tokens.match(LEFT_PAREN)) {
-            tokens.consumeToken();
-            Expression expr = parseExpression();
-            Expression parenthesizedExpression = new ParenthesizedExpression(expr);
-
-            require(RIGHT_PAREN, parenthesizedExpression);
-
-            return parenthesizedExpression;
-        } else if (tokens.match(LEFT_BRACKET)) {
-            tokens.consumeToken();
+        } else if (tokens.matchAndConsume(LEFT_BRACKET)) {
             List<Expression> exprs = new ArrayList<>();
+            int elementHeight = 0;
 
             if (!tokens.match(RIGHT_BRACKET)) {
                 Expression val = parseExpression();
                 exprs.add(val);
+                elementHeight = height;
 
                 while (tokens.matchAndConsume(COMMA)) {
                     val = parseExpression();
                     exprs.add(val);
+                    elementHeight = Math.max(elementHeight, height);
                 }
             }
 
             ListLiteralExpression listLiteralExpression = new ListLiteralExpression(exprs);
+            height = elementHeight + 1;
 
             if (!tokens.match(RIGHT_BRACKET)) {
-                listLiteralExpression.addError(ErrorType.UNTERMINATED_LIST);
+                error(listLiteralExpression, ErrorType.UNTERMINATED_LIST, listLiteralExpression.getStart());
             } else {
                 tokens.consumeToken();
             }
@@ -485,29 +798,41 @@ public class CatScriptParser {
 
             if (tokens.matchAndConsume(LEFT_PAREN)) {
                 List<Expression> exprs = new ArrayList<>();
+                int argumentHeight = 0;
 
                 if (!tokens.match(RIGHT_PAREN)) {
                     Expression val = parseExpression();
                     exprs.add(val);
+                    argumentHeight = height;
 
                     while (tokens.matchAndConsume(COMMA)) {
                         val = parseExpression();
                         exprs.add(val);
+                        argumentHeight = Math.max(argumentHeight, height);
                     }
                 }
 
                 FunctionCallExpression functionCallExpression = new FunctionCallExpression(identifier, exprs);
+                height = argumentHeight + 1;
+                functionCallExpression.setStart(token);
 
-                if (!tokens.match(RIGHT_PAREN)) {
-                    functionCallExpression.addError(ErrorType.UNTERMINATED_ARG_LIST);
+                if (tokens.match(RIGHT_PAREN)) {
+                    functionCallExpression.setEnd(tokens.consumeToken());
+                } else {
+                    error(functionCallExpression, ErrorType.UNTERMINATED_ARG_LIST, token);
                 }
 
                 return functionCallExpression;
             }
             return identifierExpression;
         } else {
-            SyntaxErrorExpression syntaxErrorExpression = new SyntaxErrorExpression(tokens.consumeToken());
-            syntaxErrorExpression.setToken(tokens.consumeToken());
+            // skips the bad token and the one after it, but never the EOF token, which the
+            // enclosing statements still need to see to stop
+            Token token = tokens.match(EOF) ? tokens.getCurrentToken() : tokens.consumeToken();
+            SyntaxErrorExpression syntaxErrorExpression = countErrors(new SyntaxErrorExpression(token));
+            if (!tokens.match(EOF)) {
+                syntaxErrorExpression.setToken(tokens.consumeToken());
+            }
             return syntaxErrorExpression;
         }
     }
@@ -516,6 +841,48 @@ public class CatScriptParser {
     //============================================================
     //  Parse Helpers
     //============================================================
+    // called as each statement or expression is entered, paired with leave()
+    private void enter() {
+        depth++;
+        if (budget != null) {
+            Token location = tokens.getCurrentToken();
+            budget.step(location);
+            budget.checkTokens(tokens.getPosition(), location);
+        }
+        if (depth > maxDepth) {
+            throw tooDeep(tokens.getCurrentToken());
+        }
+    }
+
+    private void leave() {
+        depth--;
+    }
+
+    private ParseBudgetExceededException tooDeep(Token location) {
+        return new ParseBudgetExceededException(ParseBudget.Limit.DEPTH, maxDepth, location);
+    }
+
+    private <T extends ParseElement> T countErrors(T element) {
+        if (budget != null) {
+            budget.addErrors(element.getErrors().size(), element.getStart());
+        }
+        return element;
+    }
+
+    private void error(ParseElement elt, ErrorType type, Token location) {
+        elt.addError(type, location);
+        if (budget != null) {
+            budget.addErrors(1, location);
+        }
+    }
+
+    // require() for when the token itself is not needed, so no Token is created for it
+    private void expect(TokenType type, ParseElement elt) {
+        if (!tokens.matchAndConsume(type)) {
+            error(elt, ErrorType.UNEXPECTED_TOKEN, tokens.getCurrentToken());
+        }
+    }
+
     private Token require(TokenType type, ParseElement elt) {
         return require(type, elt, ErrorType.UNEXPECTED_TOKEN);
     }
@@ -524,7 +891,7 @@ public class CatScriptParser {
         if(tokens.match(type)){
             return tokens.consumeToken();
         } else {
-            elt.addError(msg, tokens.getCurrentToken());
+            error(elt, msg, tokens.getCurrentToken());
             return tokens.getCurrentToken();
         }
     }
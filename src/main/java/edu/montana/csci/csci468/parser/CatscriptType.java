@@ -1,38 +1,85 @@
 package edu.montana.csci.csci468.parser;
 
 import java.util.List;
-import java.util.Objects;
 
+/**
+ * Every built in type is a single instance, so types compare by reference.  The simple types
+ * are the constants below, and each list type is made once per component type by
+ * getListType().  A type made with a constructor is only equal to itself.
+ */
 public class CatscriptType {
 
-    public static final CatscriptType INT = new CatscriptType("int", Integer.class);
-    public static final CatscriptType STRING = new CatscriptType("string", String.class);
-    public static final CatscriptType BOOLEAN = new CatscriptType("bool", Boolean.class);
-    public static final CatscriptType OBJECT = new CatscriptType("object", Object.class);
-    public static final CatscriptType NULL = new CatscriptType("null", Object.class);
-    public static final CatscriptType VOID = new CatscriptType("void", Object.class);
+    private static int simpleTypes = 0;
+
+    public static final CatscriptType INT = simple("int", Integer.class);
+    public static final CatscriptType STRING = simple("string", String.class);
+    public static final CatscriptType BOOLEAN = simple("bool", Boolean.class);
+    public static final CatscriptType OBJECT = simple("object", Object.class);
+    public static final CatscriptType NULL = simple("null", Object.class);
+    public static final CatscriptType VOID = simple("void", Object.class);
+
+    // ASSIGNABLE[to][from] for the simple types, the last column stands for every list type
+    private static final int LIST_COLUMN = simpleTypes;
+    private static final boolean[][] ASSIGNABLE = new boolean[simpleTypes][simpleTypes + 1];
+
+    static {
+        CatscriptType[] simple = {INT, STRING, BOOLEAN, OBJECT, NULL, VOID};
+        for (CatscriptType to : simple) {
+            for (CatscriptType from : simple) {
+                ASSIGNABLE[to.index][from.index] = to.isAssignableByClass(from);
+            }
+            ASSIGNABLE[to.index][LIST_COLUMN] = to.javaClass.isAssignableFrom(List.class);
+        }
+    }
 
     private final String name;
     private final Class javaClass;
+    // the type's row and column in ASSIGNABLE, or NOT_IN_TABLE for types made elsewhere
+    private final int index;
+    private volatile ListType listType;
+
+    private static final int NOT_IN_TABLE = -1;
 
     public CatscriptType(String name, Class javaClass) {
+        this(name, javaClass, NOT_IN_TABLE);
+    }
+
+    private CatscriptType(String name, Class javaClass, int index) {
         this.name = name;
         this.javaClass = javaClass;
+        this.index = index;
+    }
+
+    private static CatscriptType simple(String name, Class javaClass) {
+        return new CatscriptType(name, javaClass, simpleTypes++);
     }
 
     public boolean isAssignableFrom(CatscriptType type) {
-        if (type == VOID) {
-            return false;
-        } else if (type == NULL) {
-            return true;
-        } else if (this.javaClass.isAssignableFrom(type.javaClass)) {
-            return true;
+        if (index == NOT_IN_TABLE || type.index == NOT_IN_TABLE) {
+            return isAssignableByClass(type);
         }
-        return false;
+        return ASSIGNABLE[index][type.index];
+    }
+
+    private boolean isAssignableByClass(CatscriptType type) {
+        return type != VOID && (type == NULL || javaClass.isAssignableFrom(type.javaClass));
     }
 
     public static CatscriptType getListType(CatscriptType type) {
-        return new ListType(type);
+        if (type == null) {
+            throw new IllegalArgumentException("A list type needs a component type");
+        }
+        ListType listType = type.listType;
+        if (listType == null) {
+            synchronized (type) {
+                listType = type.listType;
+                if (listType == null) {
+                    listType = new ListType(type);
+                    type.listType = listType;
+                }
+            }
+        }
+        return listType;
     }
 
     @Override
@@ -40,17 +87,16 @@ public class CatscriptType {
         return name;
     }
 
+    // identity, as there is one instance per type; kept so that callers comparing with
+    // equals() and hashing types go on working
     @Override
     public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        CatscriptType that = (CatscriptType) o;
-        return Objects.equals(name, that.name);
+        return this == o;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(name);
+        return System.identityHashCode(this);
     }
 
     public Class getJavaType() {
@@ -59,9 +105,17 @@ public class CatscriptType {
 
     public static class ListType extends CatscriptType {
         private final CatscriptType componentType;
+        private final String name;
+
+        /**
+         * @deprecated makes a list type apart from the shared one, equal only to itself; use
+         * CatscriptType.getListType()
+         */
+        @Deprecated
         public ListType(CatscriptType componentType) {
-            super("list", List.class);
+            super("list", List.class, LIST_COLUMN);
             this.componentType = componentType;
+            this.name = "list<" + componentType + ">";
         }
 
         @Override
@@ -80,7 +134,7 @@ public class CatscriptType {
 
         @Override
         public String toString() {
-            return super.toString() + "<" + componentType.toString() + ">";
+            return name;
         }
     }
 
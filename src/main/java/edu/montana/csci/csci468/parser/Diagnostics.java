@@ -0,0 +1,88 @@
+package edu.montana.csci.csci468.parser;
+
+import edu.montana.csci.csci468.tokenizer.Token;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Collects the errors of a tree in the order they are offered.  Only the first error at
+ * any token is kept: ParseElement offers a child's errors before its parent's, so that is
+ * the innermost, most specific one, and the rest are the same mistake seen again by the
+ * enclosing elements.  Errors without a location are always kept, as there is no token to
+ * compare them by.  Each phase (syntax errors from the parser, the rest from verify) keeps
+ * at most a fixed number.  Nothing here formats a message.
+ */
+public class Diagnostics {
+
+    public static final int DEFAULT_LIMIT_PER_PHASE = 100;
+
+    private final int limitPerPhase;
+    private final List<ParseError> errors = new ArrayList<>();
+    // token indexes that already have an error
+    private final BitSet reported = new BitSet();
+    private int syntaxErrors = 0;
+    private int verifyErrors = 0;
+    private int offered = 0;
+    private ParseError lastOffered;
+
+    public Diagnostics() {
+        this(DEFAULT_LIMIT_PER_PHASE);
+    }
+
+    public Diagnostics(int limitPerPhase) {
+        this.limitPerPhase = limitPerPhase;
+    }
+
+    // returns true if the error was kept
+    public boolean add(ParseError error) {
+        offered++;
+        lastOffered = error;
+        Token location = error.getLocation();
+        if (location != null && reported.get(location.getIndex())) {
+            return false;
+        }
+        if (error.getErrorType().isSyntaxError()) {
+            if (syntaxErrors == limitPerPhase) {
+                return false;
+            }
+            syntaxErrors++;
+        } else {
+            if (verifyErrors == limitPerPhase) {
+                return false;
+            }
+            verifyErrors++;
+        }
+        if (location != null) {
+            reported.set(location.getIndex());
+        }
+        errors.add(error);
+        return true;
+    }
+
+    public List<ParseError> getErrors() {
+        return errors;
+    }
+
+    // every error offered, kept or not
+    public int getOffered() {
+        return offered;
+    }
+
+    public ParseError getLastOffered() {
+        return lastOffered;
+    }
+
+    public int getOmitted() {
+        return offered - errors.size();
+    }
+
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+
+    public ParseErrorException toException() {
+        return new ParseErrorException(errors, getOmitted());
+    }
+}
@@ -1,20 +1,31 @@
 package edu.montana.csci.csci468.parser;
 
 public enum ErrorType {
-    UNTERMINATED_LIST("Unterminated list literal"),
-    UNTERMINATED_ARG_LIST("Unterminated argument list"),
-    BAD_TYPE_NAME("Bad Type Name"),
+    UNTERMINATED_LIST("Unterminated list literal", true),
+    UNTERMINATED_ARG_LIST("Unterminated argument list", true),
+    BAD_TYPE_NAME("Bad Type Name", true),
     DUPLICATE_NAME("This name is already used in this program"),
     INCOMPATIBLE_TYPES("Incompatible types"),
     UNKNOWN_NAME("This symbol is not defined"),
     ARG_MISMATCH("Wrong number of arguments"),
     MISSING_RETURN_STATEMENT("Missing return statement in function"),
-    UNEXPECTED_TOKEN("Unexpected Token");
+    UNEXPECTED_TOKEN("Unexpected Token", true);
 
     private final String message;
+    private final boolean syntax;
 
     ErrorType(String string) {
+        this(string, false);
+    }
+
+    ErrorType(String string, boolean syntax) {
         message = string;
+        this.syntax = syntax;
+    }
+
+    // reported by the parser rather than by verify()
+    public boolean isSyntaxError() {
+        return syntax;
     }
 
     @Override
@@ -0,0 +1,79 @@
+package edu.montana.csci.csci468.parser;
+
+import edu.montana.csci.csci468.tokenizer.Token;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits on how much work parsing and verifying one untrusted source may do.  The parser
+ * and verify() check it as they go and throw ParseBudgetExceededException as soon as a
+ * limit is passed; the deadline is measured from when the budget was created, and
+ * cancel() stops the work at the next check from any thread.  One budget covers all the
+ * threads of a pooled parse or verify, so the parse errors are counted across them.
+ */
+public class ParseBudget {
+
+    public enum Limit {
+        TOKENS, DEPTH, ERRORS, TIME, CANCELLED
+    }
+
+    // the clock is only read every this many steps
+    private static final int STEPS_PER_CLOCK_CHECK = 256;
+
+    private final int maxTokens;
+    private final int maxDepth;
+    private final int maxErrors;
+    private final long deadline;
+    private volatile boolean cancelled = false;
+    private final AtomicInteger parseErrors = new AtomicInteger();
+    // stepped from every thread without synchronizing, a lost update only delays a clock check
+    private int steps = 0;
+
+    public ParseBudget(int maxTokens, int maxDepth, int maxErrors, long timeoutMillis) {
+        this.maxTokens = maxTokens;
+        this.maxDepth = maxDepth;
+        this.maxErrors = maxErrors;
+        this.deadline = System.nanoTime() + timeoutMillis * 1_000_000;
+    }
+
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public int getMaxErrors() {
+        return maxErrors;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    void checkTokens(int tokens, Token location) {
+        if (tokens > maxTokens) {
+            throw new ParseBudgetExceededException(Limit.TOKENS, maxTokens, location);
+        }
+    }
+
+    void addErrors(int errors, Token location) {
+        if (parseErrors.addAndGet(errors) > maxErrors) {
+            throw new ParseBudgetExceededException(Limit.ERRORS, maxErrors, location);
+        }
+    }
+
+    // one unit of work, checks the deadline every so often
+    void step(Token location) {
+        if (++steps % STEPS_PER_CLOCK_CHECK != 0) {
+            return;
+        }
+        if (cancelled) {
+            throw new ParseBudgetExceededException(Limit.CANCELLED, 0, location);
+        }
+        if (System.nanoTime() - deadline > 0) {
+            throw new ParseBudgetExceededException(Limit.TIME, 0, location);
+        }
+    }
+}
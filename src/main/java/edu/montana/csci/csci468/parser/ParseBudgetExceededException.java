@@ -0,0 +1,46 @@
+package edu.montana.csci.csci468.parser;
+
+import edu.montana.csci.csci468.tokenizer.Token;
+
+public class ParseBudgetExceededException extends RuntimeException {
+    private final ParseBudget.Limit limit;
+    private final int allowed;
+    private final Token location;
+
+    public ParseBudgetExceededException(ParseBudget.Limit limit, int allowed, Token location) {
+        super(makeMessage(limit, allowed, location));
+        this.limit = limit;
+        this.allowed = allowed;
+        this.location = location;
+    }
+
+    private static String makeMessage(ParseBudget.Limit limit, int allowed, Token location) {
+        String where = location == null ? "" : " (line " + location.getLine() + ")";
+        switch (limit) {
+            case TOKENS:
+                return "Source has more than " + allowed + " tokens" + where;
+            case DEPTH:
+                return "Source is nested more than " + allowed + " levels deep" + where;
+            case ERRORS:
+                return "Source has more than " + allowed + " errors" + where;
+            case TIME:
+                return "Ran out of time" + where;
+            default:
+                return "Cancelled" + where;
+        }
+    }
+
+    public ParseBudget.Limit getLimit() {
+        return limit;
+    }
+
+    // the limit that was passed, 0 for TIME and CANCELLED
+    public int getAllowed() {
+        return allowed;
+    }
+
+    // where the source was when the budget ran out, null if it was checked up front
+    public Token getLocation() {
+        return location;
+    }
+}
@@ -7,9 +7,12 @@ import edu.montana.csci.csci468.parser.statements.FunctionDefinitionStatement;
 import edu.montana.csci.csci468.tokenizer.Token;
 import org.objectweb.asm.Opcodes;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 import static edu.montana.csci.csci468.bytecode.ByteCodeGenerator.internalNameFor;
 
@@ -18,20 +21,19 @@ public abstract class ParseElement {
     protected ParseElement parent;
     private Token start;
     private Token end;
-    private List<ParseElement> children;
+    // most elements have one or two children and no errors, so the children are kept in an
+    // array that is sized as they are added and the error list only exists once there is one
+    private static final ParseElement[] NO_CHILDREN = new ParseElement[0];
+    private ParseElement[] children = NO_CHILDREN;
+    private int childCount = 0;
     private List<ParseError> errors;
 
-    public ParseElement() {
-        this.errors = new LinkedList<>();
-        this.children = new LinkedList<>();
-    }
-
     public CatScriptProgram getProgram() {
-        if (this.getParent() instanceof CatScriptProgram) {
-            return (CatScriptProgram) this.getParent();
-        } else {
-            return getParent().getProgram();
+        ParseElement element = getParent();
+        while (!(element instanceof CatScriptProgram)) {
+            element = element.getParent();
         }
+        return (CatScriptProgram) element;
     }
 
     public void setStart(Token start) {
@@ -60,11 +62,11 @@ public abstract class ParseElement {
     }
 
     public List<ParseError> getErrors() {
-        return errors;
+        return errors == null ? Collections.emptyList() : errors;
     }
 
     public boolean hasErrors() {
-        return !errors.isEmpty();
+        return errors != null;
     }
 
     public void addError(ErrorType errorType, Object... args) {
@@ -72,17 +74,30 @@ public abstract class ParseElement {
     }
 
     public void addError(ErrorType errorMessage, Token token, Object... args) {
+        if (errors == null) {
+            errors = new ArrayList<>(1);
+        }
         errors.add(new ParseError(token, errorMessage, args));
     }
 
     protected <T extends ParseElement> T addChild(T element) {
         element.parent = this;
-        children.add(element);
+        if (childCount == children.length) {
+            children = Arrays.copyOf(children, childCount < 2 ? childCount + 1 : childCount + (childCount >> 1));
+        }
+        children[childCount++] = element;
         return element;
     }
 
+    // lets an element that knows how many more children it is about to add allocate them once
+    protected void reserveChildren(int count) {
+        if (children.length < childCount + count) {
+            children = Arrays.copyOf(children, childCount + count);
+        }
+    }
+
     public List<ParseElement> getChildren() {
-        return children;
+        return Collections.unmodifiableList(Arrays.asList(children).subList(0, childCount));
     }
 
     @Override
@@ -91,11 +106,12 @@ public abstract class ParseElement {
     }
 
     public boolean hasError(ErrorType errorMessage) {
-        return errors.stream().anyMatch(parseError -> Objects.equals(parseError.getErrorType(), errorMessage));
+        return getErrors().stream().anyMatch(parseError -> Objects.equals(parseError.getErrorType(), errorMessage));
     }
 
     private void registerFunctions(SymbolTable symbolTable) {
-        for (ParseElement child : children) {
+        for (int i = 0; i < childCount; i++) {
+            ParseElement child = children[i];
             if (child instanceof FunctionDefinitionStatement) {
                 FunctionDefinitionStatement func = (FunctionDefinitionStatement) child;
                 if (symbolTable.hasSymbol(func.getName())) {
@@ -109,26 +125,161 @@ public abstract class ParseElement {
 
 
     public void verify() {
-        SymbolTable symbolTable = new SymbolTable();
+        verify(null, null);
+    }
+
+    public void verify(ForkJoinPool pool) {
+        verify(pool, null);
+    }
+
+    public void verify(ParseBudget budget) {
+        verify(null, budget);
+    }
+
+    /**
+     * Like verify(), with either argument optional.
+     * <p>
+     * With a pool, the element may validate independent parts of itself, such as function
+     * bodies, as tasks on it.  The errors are the same and come in the same order.
+     * <p>
+     * With a budget, validation throws ParseBudgetExceededException once the budget runs
+     * out of time or is cancelled, and so does a tree with more errors than it allows.
+     */
+    public void verify(ForkJoinPool pool, ParseBudget budget) {
+        SymbolTable symbolTable = new SymbolTable(budget);
         registerFunctions(symbolTable);
-        validate(symbolTable);
+        if (pool == null) {
+            validate(symbolTable);
+        } else {
+            validate(symbolTable, pool);
+        }
+        int max = budget == null ? Integer.MAX_VALUE : budget.getMaxErrors() + 1;
+        Diagnostics diagnostics = collectErrors(new Diagnostics(), max);
+        if (budget != null && diagnostics.getOffered() > budget.getMaxErrors()) {
+            throw new ParseBudgetExceededException(ParseBudget.Limit.ERRORS, budget.getMaxErrors(),
+                    diagnostics.getLastOffered().getLocation());
+        }
+        if (diagnostics.hasErrors()) {
+            throw diagnostics.toException();
+        }
+    }
 
-        final LinkedList<ParseError> collector = new LinkedList<>();
-        collectErrors(collector, this);
-        if (collector.size() > 0) {
-            throw new ParseErrorException(collector);
+    /**
+     * The errors in this tree, each element's after those of its children, as the given
+     * collector keeps them.
+     */
+    public Diagnostics collectErrors(Diagnostics diagnostics) {
+        return collectErrors(diagnostics, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Swaps every token this tree holds for a detached copy, one per source token, so a tree
+     * that is kept around after verify() only keeps the source's line index alive, not its
+     * token list.
+     */
+    public void detachFromTokens() {
+        TokenDetacher detacher = new TokenDetacher();
+        walk(new ParseTreeVisitor() {
+            @Override
+            public boolean enter(ParseElement element) {
+                element.start = detacher.detach(element.start);
+                element.end = detacher.detach(element.end);
+                if (element.errors != null) {
+                    for (ParseError error : element.errors) {
+                        error.detach(detacher);
+                    }
+                }
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Visits this element and everything below it in source order, calling enter() on the
+     * way down and leave() on the way back up.  The path from this element to the one being
+     * visited is kept in arrays rather than on the Java stack.
+     */
+    public void walk(ParseTreeVisitor visitor) {
+        if (!visitor.enter(this)) {
+            visitor.leave(this);
+            return;
+        }
+        ParseElement[] path = new ParseElement[16];
+        int[] nextChild = new int[16];
+        int depth = 0;
+        path[0] = this;
+        while (depth >= 0) {
+            ParseElement element = path[depth];
+            int next = nextChild[depth];
+            if (next < element.childCount) {
+                nextChild[depth] = next + 1;
+                ParseElement child = element.children[next];
+                if (visitor.enter(child)) {
+                    if (++depth == path.length) {
+                        path = Arrays.copyOf(path, depth * 2);
+                        nextChild = Arrays.copyOf(nextChild, depth * 2);
+                    }
+                    path[depth] = child;
+                    nextChild[depth] = 0;
+                } else {
+                    visitor.leave(child);
+                }
+            } else {
+                path[depth--] = null;
+                visitor.leave(element);
+            }
         }
     }
 
-    public abstract void validate(SymbolTable symbolTable);
+    // the detached copy of each token, by token index
+    static class TokenDetacher {
+        private Token[] detached = new Token[256];
 
-    private void collectErrors(LinkedList<ParseError> collector, ParseElement parseElement){
-        collector.addAll(parseElement.getErrors());
-        for (ParseElement child : parseElement.getChildren()) {
-            collectErrors(collector, child);
+        Token detach(Token token) {
+            if (token == null) {
+                return null;
+            }
+            int index = token.getIndex();
+            if (index >= detached.length) {
+                detached = Arrays.copyOf(detached, Math.max(index + 1, detached.length * 2));
+            }
+            if (detached[index] == null) {
+                detached[index] = token.detach();
+            }
+            return detached[index];
         }
     }
 
+    public abstract void validate(SymbolTable symbolTable);
+
+    public void validate(SymbolTable symbolTable, ForkJoinPool pool) {
+        validate(symbolTable);
+    }
+
+    // offers a child's errors before its parent's, so where both report the same token the
+    // child's more specific error is the one kept, and offers nothing more once max have been
+    private Diagnostics collectErrors(Diagnostics diagnostics, int max) {
+        walk(new ParseTreeVisitor() {
+            @Override
+            public boolean enter(ParseElement element) {
+                return diagnostics.getOffered() < max;
+            }
+
+            @Override
+            public void leave(ParseElement element) {
+                if (element.errors != null) {
+                    for (ParseError error : element.errors) {
+                        if (diagnostics.getOffered() >= max) {
+                            return;
+                        }
+                        diagnostics.add(error);
+                    }
+                }
+            }
+        });
+        return diagnostics;
+    }
+
     public void transpile(StringBuilder javascript) {
         throw new UnsupportedOperationException("transpile needs to be implemented for " + this.getClass().getName());
     }
@@ -6,12 +6,18 @@ public class ParseError {
 
     private Token location;
     private ErrorType errorType;
+    private Object[] args;
+    // formatted the first time it is asked for, most errors are only counted or compared
     private String message;
 
     public ParseError(Token location, ErrorType errorType, Object... args) {
         this.location = location;
         this.errorType = errorType;
-        this.message = String.format(errorType.toString(), args);
+        this.args = args;
+    }
+
+    void detach(ParseElement.TokenDetacher detacher) {
+        location = detacher.detach(location);
     }
 
     public Token getLocation() {
@@ -22,8 +28,27 @@ public class ParseError {
         return errorType;
     }
 
+    // 0 when the error has no location
+    public int getLine() {
+        return location == null ? 0 : location.getLine();
+    }
+
+    public int getColumn() {
+        return location == null ? 0 : location.getLineOffset();
+    }
+
+    public String getMessage() {
+        if (message == null) {
+            message = args.length == 0 ? errorType.toString() : String.format(errorType.toString(), args);
+        }
+        return message;
+    }
+
     public String getFullMessage() {
         StringBuilder sb = new StringBuilder();
+        if (location == null) {
+            return sb.append("Error: ").append(getMessage()).toString();
+        }
         String lineStart = "Line " + location.getLine() + ":";
         sb.append(lineStart);
         sb.append(location.getLineContent());
@@ -31,7 +56,7 @@ public class ParseError {
         sb.append(" ".repeat(lineStart.length() + location.getLineOffset() - 1));
         sb.append("^\n\n");
         sb.append("Error: ");
-        sb.append(message);
+        sb.append(getMessage());
         return sb.toString();
     }
-}
\ No newline at end of file
+}
@@ -4,21 +4,45 @@ import java.util.List;
 
 public class ParseErrorException extends RuntimeException {
     private final List<ParseError> errors;
+    private final int omitted;
+    // rendered on the first getMessage(), callers that only look at getErrors() never pay for it
+    private String message;
 
     public ParseErrorException(List<ParseError> errors) {
-        super(makeMessage(errors));
+        this(errors, 0);
+    }
+
+    public ParseErrorException(List<ParseError> errors, int omitted) {
         this.errors = errors;
+        this.omitted = omitted;
+    }
+
+    @Override
+    public String getMessage() {
+        if (message == null) {
+            message = makeMessage(errors, omitted);
+        }
+        return message;
     }
 
-    private static String makeMessage(List<ParseError> errors) {
+    private static String makeMessage(List<ParseError> errors, int omitted) {
         StringBuilder errorMessage = new StringBuilder("Parse Errors Occurred:\n\n");
         for (ParseError error : errors) {
             errorMessage.append(error.getFullMessage()).append("\n\n");
         }
+        if (omitted > 0) {
+            errorMessage.append(omitted).append(" more errors not shown\n\n");
+        }
         return errorMessage.toString();
     }
 
     public List<ParseError> getErrors() {
         return errors;
     }
+
+    // errors that were left out of getErrors() because they repeated an earlier one's
+    // location or went over the limit for their phase
+    public int getOmitted() {
+        return omitted;
+    }
 }
@@ -0,0 +1,17 @@
+package edu.montana.csci.csci468.parser;
+
+/**
+ * Callbacks for ParseElement.walk(), which visits a tree depth first with its own stack,
+ * so passes over very deep trees do not use a Java stack frame per level.
+ */
+public interface ParseTreeVisitor {
+
+    // called before the element's children, returning false skips them
+    default boolean enter(ParseElement element) {
+        return true;
+    }
+
+    // called after the element's children, or right after enter() if they were skipped
+    default void leave(ParseElement element) {
+    }
+}
@@ -2,18 +2,58 @@ package edu.montana.csci.csci468.parser;
 
 import edu.montana.csci.csci468.parser.statements.FunctionDefinitionStatement;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.Map;
 
+/**
+ * One map from each name to its innermost binding, which links to the binding it shadows,
+ * so a lookup is a single map get however deep the scopes are.  Each scope logs the names
+ * it bound, and popScope() puts back what they shadowed.
+ */
 public class SymbolTable {
 
-    LinkedList<Map<String, Object>> symbolStack = new LinkedList<>();
+    private final Map<String, Binding> bindings = new HashMap<>();
+    // names bound since the start of each scope, scopeStarts[i] is where scope i begins
+    private final ArrayList<String> undoLog = new ArrayList<>();
+    private int[] scopeStarts = new int[8];
+    private int scope = 0;
+    // the order global symbols were registered in, so a layered table only sees the
+    // globals that existed when it was made
+    private final Map<String, Integer> globalOrder = new HashMap<>();
+    private final SymbolTable globals;
+    private final int visibleGlobals;
+    // checked on every lookup so validating a large tree can run out of time
+    private final ParseBudget budget;
+    // variables get slots in the frame of the function they are declared in, frame 0 is
+    // the globals; slots are not reused between blocks, so a frame's size is its slot count
+    private int frame = 0;
+    private int slots = 0;
+    private final ArrayDeque<Integer> enclosingSlots = new ArrayDeque<>();
 
     public SymbolTable(){
-        HashMap<String, Object> globalScope = new HashMap<>();
-        symbolStack.push(globalScope);
+        this(null, 0, null);
+    }
+
+    SymbolTable(ParseBudget budget) {
+        this(null, 0, budget);
+    }
+
+    private SymbolTable(SymbolTable globals, int visibleGlobals, ParseBudget budget) {
+        this.globals = globals;
+        this.visibleGlobals = visibleGlobals;
+        this.budget = budget;
+    }
+
+    /**
+     * A table whose own scopes sit on top of the globals registered in this one so far.
+     * It only reads this table, so several of them can be used from different threads
+     * as long as this table is no longer changed.
+     */
+    public SymbolTable layeredScope() {
+        return new SymbolTable(this, globalOrder.size(), budget);
     }
 
     public boolean hasSymbol(String name) {
@@ -21,34 +61,74 @@ public class SymbolTable {
     }
 
     private Object getSymbol(String name) {
-        Iterator<Map<String, Object>> mapIterator = symbolStack.descendingIterator();
-        while (mapIterator.hasNext()) {
-            Map<String, Object> next =  mapIterator.next();
-            Object val = next.get(name);
-            if (val != null) {
-                return val;
+        if (budget != null) {
+            budget.step(null);
+        }
+        Binding binding = bindings.get(name);
+        if (binding != null) {
+            return binding.symbol;
+        }
+        if (globals != null) {
+            return globals.getGlobal(name, visibleGlobals);
+        }
+        return null;
+    }
+
+    private Object getGlobal(String name, int visible) {
+        Integer order = globalOrder.get(name);
+        if (order != null && order < visible) {
+            Binding binding = bindings.get(name);
+            while (binding.scope > 0) {
+                binding = binding.shadowed;
             }
+            return binding.symbol;
         }
         return null;
     }
 
     public void registerFunction(String name, FunctionDefinitionStatement func) {
-        symbolStack.peek().put(name, func);
+        register(name, func);
+    }
+
+    public Variable registerSymbol(String name, CatscriptType type) {
+        Variable variable = new Variable(type, frame, slots++);
+        register(name, variable);
+        return variable;
     }
 
-    public void registerSymbol(String name, CatscriptType type) {
-        symbolStack.peek().put(name, type);
+    private void register(String name, Object symbol) {
+        if (scope == 0) {
+            globalOrder.putIfAbsent(name, globalOrder.size());
+        }
+        Binding existing = bindings.get(name);
+        if (existing != null && existing.scope == scope) {
+            // registered again in the same scope, which replaces it
+            bindings.put(name, new Binding(symbol, scope, existing.shadowed));
+        } else {
+            bindings.put(name, new Binding(symbol, scope, existing));
+            undoLog.add(name);
+        }
     }
 
     public CatscriptType getSymbolType(String name) {
+        Variable variable = getVariable(name);
+        return variable == null ? null : variable.getType();
+    }
+
+    public Variable getVariable(String name) {
         Object object = getSymbol(name);
-        if (object instanceof CatscriptType) {
-            return (CatscriptType) object;
+        if (object instanceof Variable) {
+            return (Variable) object;
         } else {
             return null;
         }
     }
 
+    // how many frames out from the current one the variable lives, 0 for a local
+    public int getFrameDepth(Variable variable) {
+        return frame - variable.frame;
+    }
+
     public FunctionDefinitionStatement getFunction(String name) {
         Object object = getSymbol(name);
         if (object instanceof FunctionDefinitionStatement) {
@@ -59,10 +139,78 @@ public class SymbolTable {
     }
 
     public void pushScope() {
-        symbolStack.push(new HashMap<>());
+        scope++;
+        if (scope == scopeStarts.length) {
+            scopeStarts = Arrays.copyOf(scopeStarts, scope * 2);
+        }
+        scopeStarts[scope] = undoLog.size();
     }
 
     public void popScope() {
-        symbolStack.pop();
+        int start = scopeStarts[scope];
+        for (int i = undoLog.size() - 1; i >= start; i--) {
+            String name = undoLog.remove(i);
+            Binding shadowed = bindings.get(name).shadowed;
+            if (shadowed == null) {
+                bindings.remove(name);
+            } else {
+                bindings.put(name, shadowed);
+            }
+        }
+        scope--;
+    }
+
+    // a scope whose variables live in a new frame, such as a function body's
+    public void pushFrame() {
+        pushScope();
+        enclosingSlots.push(slots);
+        frame++;
+        slots = 0;
+    }
+
+    // returns how many slots the frame needs
+    public int popFrame() {
+        popScope();
+        int size = slots;
+        frame--;
+        slots = enclosingSlots.pop();
+        return size;
+    }
+
+    // slots used so far in the current frame
+    public int getFrameSize() {
+        return slots;
+    }
+
+    private static class Binding {
+        private final Object symbol;
+        private final int scope;
+        private final Binding shadowed;
+
+        Binding(Object symbol, int scope, Binding shadowed) {
+            this.symbol = symbol;
+            this.scope = scope;
+            this.shadowed = shadowed;
+        }
+    }
+
+    public static class Variable {
+        private final CatscriptType type;
+        private final int frame;
+        private final int slot;
+
+        Variable(CatscriptType type, int frame, int slot) {
+            this.type = type;
+            this.frame = frame;
+            this.slot = slot;
+        }
+
+        public CatscriptType getType() {
+            return type;
+        }
+
+        public int getSlot() {
+            return slot;
+        }
     }
 }
@@ -12,11 +12,21 @@ import org.objectweb.asm.Opcodes;
 
 public class AdditiveExpression extends Expression {
 
-    private final Token operator;
+    private final TokenType operator;
     private final Expression leftHandSide;
     private final Expression rightHandSide;
+    private CatscriptType type;
+    // picked by validate(), a tree that was never verified, like one loaded from a .catast
+    // file, has no checked operand types to pick by and takes the generic path
+    private Specialization specialization = Specialization.GENERIC;
+
+    private enum Specialization {INT_ADD, INT_SUBTRACT, CONCAT, GENERIC}
 
     public AdditiveExpression(Token operator, Expression leftHandSide, Expression rightHandSide) {
+        this(operator.getType(), leftHandSide, rightHandSide);
+    }
+
+    public AdditiveExpression(TokenType operator, Expression leftHandSide, Expression rightHandSide) {
         this.leftHandSide = addChild(leftHandSide);
         this.rightHandSide = addChild(rightHandSide);
         this.operator = operator;
@@ -29,26 +39,36 @@ public class AdditiveExpression extends Expression {
         return rightHandSide;
     }
     public boolean isAdd() {
-        return operator.getType() == TokenType.PLUS;
+        return operator == TokenType.PLUS;
     }
 
     @Override
     public void validate(SymbolTable symbolTable) {
         leftHandSide.validate(symbolTable);
         rightHandSide.validate(symbolTable);
-        if (getType().equals(CatscriptType.INT)) {
-            if (!leftHandSide.getType().equals(CatscriptType.INT)) {
+        type = resultType();
+        if (type == CatscriptType.INT) {
+            if (leftHandSide.getType() != CatscriptType.INT) {
                 leftHandSide.addError(ErrorType.INCOMPATIBLE_TYPES);
             }
-            if (!rightHandSide.getType().equals(CatscriptType.INT)) {
+            if (rightHandSide.getType() != CatscriptType.INT) {
                 rightHandSide.addError(ErrorType.INCOMPATIBLE_TYPES);
             }
         }
+        specialization = specialize();
     }
 
+    // set by validate(), trees that were never validated work it out on first use
     @Override
     public CatscriptType getType() {
-        if (leftHandSide.getType().equals(CatscriptType.STRING) || rightHandSide.getType().equals(CatscriptType.STRING)) {
+        if (type == null) {
+            type = resultType();
+        }
+        return type;
+    }
+
+    private CatscriptType resultType() {
+        if (leftHandSide.getType() == CatscriptType.STRING || rightHandSide.getType() == CatscriptType.STRING) {
             return CatscriptType.STRING;
         } else {
             return CatscriptType.INT;
@@ -57,15 +77,54 @@ public class AdditiveExpression extends Expression {
 
     @Override
     public String toString() {
-        return super.toString() + "[" + operator.getStringValue() + "]";
+        return super.toString() + "[" + operator.getText() + "]";
     }
 
     //==============================================================
     // Implementation
     //==============================================================
 
+    // the operand types are fixed once the tree is verified, so executions go straight to the
+    // code for them
+    private Specialization specialize() {
+        CatscriptType lhsType = leftHandSide.getType();
+        CatscriptType rhsType = rightHandSide.getType();
+        if (lhsType == CatscriptType.INT && rhsType == CatscriptType.INT) {
+            return isAdd() ? Specialization.INT_ADD : Specialization.INT_SUBTRACT;
+        } else if (isAdd() && getType() == CatscriptType.STRING && lhsType != CatscriptType.NULL && rhsType != CatscriptType.NULL) {
+            return Specialization.CONCAT;
+        } else {
+            return Specialization.GENERIC;
+        }
+    }
+
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
+        switch (specialization) {
+            case INT_ADD:
+                return leftHandSide.evaluateInt(runtime) + rightHandSide.evaluateInt(runtime);
+            case INT_SUBTRACT:
+                return leftHandSide.evaluateInt(runtime) - rightHandSide.evaluateInt(runtime);
+            case CONCAT:
+                return leftHandSide.evaluate(runtime).toString() + rightHandSide.evaluate(runtime).toString();
+            default:
+                return evaluateGeneric(runtime);
+        }
+    }
+
+    @Override
+    public int evaluateInt(CatscriptRuntime runtime) {
+        switch (specialization) {
+            case INT_ADD:
+                return leftHandSide.evaluateInt(runtime) + rightHandSide.evaluateInt(runtime);
+            case INT_SUBTRACT:
+                return leftHandSide.evaluateInt(runtime) - rightHandSide.evaluateInt(runtime);
+            default:
+                return (Integer) evaluate(runtime);
+        }
+    }
+
+    private Object evaluateGeneric(CatscriptRuntime runtime) {
         if(getType().equals(CatscriptType.STRING) && isAdd()) {
             String lhsValue;
             String rhsValue;
@@ -96,7 +155,7 @@ public class AdditiveExpression extends Expression {
     @Override
     public void transpile(StringBuilder javascript) {
         getLeftHandSide().transpile(javascript);
-        javascript.append(operator.getStringValue());
+        javascript.append(operator.getText());
         getRightHandSide().transpile(javascript);
     }
 
@@ -31,6 +31,9 @@ public class BooleanLiteralExpression extends Expression {
     @Override
     public Object evaluate(CatscriptRuntime runtime) { return booleanValue; }
 
+    @Override
+    public boolean evaluateBoolean(CatscriptRuntime runtime) { return booleanValue; }
+
     @Override
     public void transpile(StringBuilder javascript) { javascript.append(booleanValue); }
 
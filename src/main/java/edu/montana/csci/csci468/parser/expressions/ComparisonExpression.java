@@ -7,17 +7,26 @@ import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.tokenizer.Token;
+import edu.montana.csci.csci468.tokenizer.TokenType;
 import org.objectweb.asm.Opcodes;
 
 import static edu.montana.csci.csci468.tokenizer.TokenType.*;
 
 public class ComparisonExpression extends Expression {
 
-    private final Token operator;
+    private final TokenType operator;
     private final Expression leftHandSide;
     private final Expression rightHandSide;
+    // picked by validate(), unverified trees take the generic path, see AdditiveExpression
+    private Specialization specialization = Specialization.GENERIC;
+
+    private enum Specialization {INT_GREATER, INT_GREATER_EQUAL, INT_LESS, INT_LESS_EQUAL, GENERIC}
 
     public ComparisonExpression(Token operator, Expression leftHandSide, Expression rightHandSide) {
+        this(operator.getType(), leftHandSide, rightHandSide);
+    }
+
+    public ComparisonExpression(TokenType operator, Expression leftHandSide, Expression rightHandSide) {
         this.leftHandSide = addChild(leftHandSide);
         this.rightHandSide = addChild(rightHandSide);
         this.operator = operator;
@@ -33,20 +42,20 @@ public class ComparisonExpression extends Expression {
 
     @Override
     public String toString() {
-        return super.toString() + "[" + operator.getStringValue() + "]";
+        return super.toString() + "[" + operator.getText() + "]";
     }
 
     public boolean isLessThan() {
-        return operator.getType().equals(LESS);
+        return operator.equals(LESS);
     }
     public boolean isLessThanOrEqual() {
-        return operator.getType().equals(LESS_EQUAL);
+        return operator.equals(LESS_EQUAL);
     }
     public boolean isGreaterThanOrEqual() {
-        return operator.getType().equals(GREATER_EQUAL);
+        return operator.equals(GREATER_EQUAL);
     }
     public boolean isGreater() {
-        return operator.getType().equals(GREATER);
+        return operator.equals(GREATER);
     }
 
     @Override
@@ -59,6 +68,7 @@ public class ComparisonExpression extends Expression {
         if (!rightHandSide.getType().equals(CatscriptType.INT)) {
             rightHandSide.addError(ErrorType.INCOMPATIBLE_TYPES);
         }
+        specialization = specialize();
     }
 
     @Override
@@ -70,8 +80,45 @@ public class ComparisonExpression extends Expression {
     // Implementation
     //==============================================================
 
+    private Specialization specialize() {
+        if (leftHandSide.getType() != CatscriptType.INT || rightHandSide.getType() != CatscriptType.INT) {
+            return Specialization.GENERIC;
+        } else if (isGreater()) {
+            return Specialization.INT_GREATER;
+        } else if (isGreaterThanOrEqual()) {
+            return Specialization.INT_GREATER_EQUAL;
+        } else if (isLessThan()) {
+            return Specialization.INT_LESS;
+        } else {
+            return Specialization.INT_LESS_EQUAL;
+        }
+    }
+
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
+        if (specialization == Specialization.GENERIC) {
+            return evaluateGeneric(runtime);
+        }
+        return evaluateBoolean(runtime);
+    }
+
+    @Override
+    public boolean evaluateBoolean(CatscriptRuntime runtime) {
+        switch (specialization) {
+            case INT_GREATER:
+                return leftHandSide.evaluateInt(runtime) > rightHandSide.evaluateInt(runtime);
+            case INT_GREATER_EQUAL:
+                return leftHandSide.evaluateInt(runtime) >= rightHandSide.evaluateInt(runtime);
+            case INT_LESS:
+                return leftHandSide.evaluateInt(runtime) < rightHandSide.evaluateInt(runtime);
+            case INT_LESS_EQUAL:
+                return leftHandSide.evaluateInt(runtime) <= rightHandSide.evaluateInt(runtime);
+            default:
+                return (Boolean) evaluateGeneric(runtime);
+        }
+    }
+
+    private Object evaluateGeneric(CatscriptRuntime runtime) {
         Integer lhsValue = (Integer) leftHandSide.evaluate(runtime);
         Integer rhsValue = (Integer) rightHandSide.evaluate(runtime);
         if(isGreater()) return (lhsValue > rhsValue);
@@ -83,7 +130,7 @@ public class ComparisonExpression extends Expression {
     @Override
     public void transpile(StringBuilder javascript) {
         getLeftHandSide().transpile(javascript);
-        javascript.append(operator.getStringValue());
+        javascript.append(operator.getText());
         getRightHandSide().transpile(javascript);
     }
 
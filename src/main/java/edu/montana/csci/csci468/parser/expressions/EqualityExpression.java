@@ -9,11 +9,15 @@ import edu.montana.csci.csci468.tokenizer.TokenType;
 
 public class EqualityExpression extends Expression {
 
-    private final Token operator;
+    private final TokenType operator;
     private final Expression leftHandSide;
     private final Expression rightHandSide;
 
     public EqualityExpression(Token operator, Expression leftHandSide, Expression rightHandSide) {
+        this(operator.getType(), leftHandSide, rightHandSide);
+    }
+
+    public EqualityExpression(TokenType operator, Expression leftHandSide, Expression rightHandSide) {
         this.leftHandSide = addChild(leftHandSide);
         this.rightHandSide = addChild(rightHandSide);
         this.operator = operator;
@@ -29,11 +33,11 @@ public class EqualityExpression extends Expression {
 
     @Override
     public String toString() {
-        return super.toString() + "[" + operator.getStringValue() + "]";
+        return super.toString() + "[" + operator.getText() + "]";
     }
 
     public boolean isEqual() {
-        return operator.getType().equals(TokenType.EQUAL_EQUAL);
+        return operator.equals(TokenType.EQUAL_EQUAL);
     }
 
     @Override
@@ -64,7 +68,7 @@ public class EqualityExpression extends Expression {
     @Override
     public void transpile(StringBuilder javascript) {
         getLeftHandSide().transpile(javascript);
-        javascript.append(operator.getStringValue());
+        javascript.append(operator.getText());
         getRightHandSide().transpile(javascript);
     }
 
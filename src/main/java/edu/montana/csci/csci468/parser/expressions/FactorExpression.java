@@ -12,11 +12,19 @@ import org.objectweb.asm.Opcodes;
 
 public class FactorExpression extends Expression {
 
-    private final Token operator;
+    private final TokenType operator;
     private final Expression leftHandSide;
     private final Expression rightHandSide;
+    // picked by validate(), unverified trees take the generic path, see AdditiveExpression
+    private Specialization specialization = Specialization.GENERIC;
+
+    private enum Specialization {INT_MULTIPLY, INT_DIVIDE, GENERIC}
 
     public FactorExpression(Token operator, Expression leftHandSide, Expression rightHandSide) {
+        this(operator.getType(), leftHandSide, rightHandSide);
+    }
+
+    public FactorExpression(TokenType operator, Expression leftHandSide, Expression rightHandSide) {
         this.leftHandSide = addChild(leftHandSide);
         this.rightHandSide = addChild(rightHandSide);
         this.operator = operator;
@@ -31,12 +39,12 @@ public class FactorExpression extends Expression {
     }
 
     public boolean isMultiply() {
-        return operator.getType() == TokenType.STAR;
+        return operator == TokenType.STAR;
     }
 
     @Override
     public String toString() {
-        return super.toString() + "[" + operator.getStringValue() + "]";
+        return super.toString() + "[" + operator.getText() + "]";
     }
 
     @Override
@@ -49,6 +57,7 @@ public class FactorExpression extends Expression {
         if (!rightHandSide.getType().equals(CatscriptType.INT)) {
             rightHandSide.addError(ErrorType.INCOMPATIBLE_TYPES);
         }
+        specialization = specialize();
     }
 
     @Override
@@ -60,8 +69,35 @@ public class FactorExpression extends Expression {
     // Implementation
     //==============================================================
 
+    private Specialization specialize() {
+        if (leftHandSide.getType() == CatscriptType.INT && rightHandSide.getType() == CatscriptType.INT) {
+            return isMultiply() ? Specialization.INT_MULTIPLY : Specialization.INT_DIVIDE;
+        } else {
+            return Specialization.GENERIC;
+        }
+    }
+
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
+        if (specialization == Specialization.GENERIC) {
+            return evaluateGeneric(runtime);
+        }
+        return evaluateInt(runtime);
+    }
+
+    @Override
+    public int evaluateInt(CatscriptRuntime runtime) {
+        switch (specialization) {
+            case INT_MULTIPLY:
+                return leftHandSide.evaluateInt(runtime) * rightHandSide.evaluateInt(runtime);
+            case INT_DIVIDE:
+                return leftHandSide.evaluateInt(runtime) / rightHandSide.evaluateInt(runtime);
+            default:
+                return (Integer) evaluateGeneric(runtime);
+        }
+    }
+
+    private Object evaluateGeneric(CatscriptRuntime runtime) {
         Integer lhsValue = (Integer) leftHandSide.evaluate(runtime);
         Integer rhsValue = (Integer) rightHandSide.evaluate(runtime);
         if (isMultiply()) {
@@ -74,7 +110,7 @@ public class FactorExpression extends Expression {
     @Override
     public void transpile(StringBuilder javascript) {
         getLeftHandSide().transpile(javascript);
-        javascript.append(operator.getStringValue());
+        javascript.append(operator.getText());
         getRightHandSide().transpile(javascript);
     }
 
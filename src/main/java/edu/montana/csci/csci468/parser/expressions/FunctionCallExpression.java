@@ -2,6 +2,7 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.Frame;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
@@ -10,16 +11,17 @@ import edu.montana.csci.csci468.parser.statements.FunctionDefinitionStatement;
 import org.objectweb.asm.Opcodes;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 public class FunctionCallExpression extends Expression {
     private final String name;
     List<Expression> arguments;
     private CatscriptType type;
+    private FunctionDefinitionStatement function;
 
     public FunctionCallExpression(String functionName, List<Expression> arguments) {
-        this.arguments = new LinkedList<>();
+        this.arguments = new ArrayList<>(arguments.size());
+        reserveChildren(arguments.size());
         for (Expression value : arguments) {
             this.arguments.add(addChild(value));
         }
@@ -39,9 +41,13 @@ public class FunctionCallExpression extends Expression {
         return type;
     }
 
+    public void setType(CatscriptType type) {
+        this.type = type;
+    }
+
     @Override
     public void validate(SymbolTable symbolTable) {
-        FunctionDefinitionStatement function = symbolTable.getFunction(getName());
+        function = symbolTable.getFunction(getName());
         if (function == null) {
             addError(ErrorType.UNKNOWN_NAME);
             type = CatscriptType.OBJECT;
@@ -68,12 +74,17 @@ public class FunctionCallExpression extends Expression {
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        List<Object> args = new ArrayList();
-        for (Expression argument : arguments){
-            args.add(argument.evaluate(runtime));
+        FunctionDefinitionStatement func = function;
+        if (func == null) {
+            // loaded from a .catast file rather than validated
+            func = getProgram().getFunction(name);
+            function = func;
+        }
+        Frame frame = runtime.newFrame(func.getFrameSize());
+        for (int i = 0; i < arguments.size(); i++) {
+            frame.setValue(i, arguments.get(i).evaluate(runtime));
         }
-        FunctionDefinitionStatement func = getProgram().getFunction(name);
-        return func.invoke(runtime, args);
+        return func.invoke(runtime, frame);
     }
 
     @Override
@@ -11,6 +11,8 @@ import org.objectweb.asm.Opcodes;
 public class IdentifierExpression extends Expression {
     private final String name;
     private CatscriptType type;
+    private int frameDepth;
+    private int slot;
 
     public IdentifierExpression(String value) {
         this.name = value;
@@ -25,13 +27,31 @@ public class IdentifierExpression extends Expression {
         return type;
     }
 
+    public void setType(CatscriptType type) {
+        this.type = type;
+    }
+
+    public int getFrameDepth() {
+        return frameDepth;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public void setSlot(int frameDepth, int slot) {
+        this.frameDepth = frameDepth;
+        this.slot = slot;
+    }
+
     @Override
     public void validate(SymbolTable symbolTable) {
-        CatscriptType type = symbolTable.getSymbolType(getName());
-        if (type == null) {
+        SymbolTable.Variable variable = symbolTable.getVariable(getName());
+        if (variable == null) {
             addError(ErrorType.UNKNOWN_NAME);
         } else {
-            this.type = type;
+            this.type = variable.getType();
+            setSlot(symbolTable.getFrameDepth(variable), variable.getSlot());
         }
     }
 
@@ -41,7 +61,7 @@ public class IdentifierExpression extends Expression {
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        return runtime.getValue(name);
+        return runtime.getValue(frameDepth, slot);
     }
 
     @Override
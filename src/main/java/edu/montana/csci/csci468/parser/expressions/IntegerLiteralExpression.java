@@ -7,9 +7,11 @@ import edu.montana.csci.csci468.parser.SymbolTable;
 
 public class IntegerLiteralExpression extends Expression {
     private final int integerVal;
+    private final Integer boxedVal;
 
     public IntegerLiteralExpression(String value) {
         this.integerVal = Integer.parseInt(value);
+        this.boxedVal = integerVal;
     }
 
     public int getValue() {
@@ -35,6 +37,11 @@ public class IntegerLiteralExpression extends Expression {
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
+        return boxedVal;
+    }
+
+    @Override
+    public int evaluateInt(CatscriptRuntime runtime) {
         return integerVal;
     }
 
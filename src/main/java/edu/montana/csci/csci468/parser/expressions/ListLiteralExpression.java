@@ -15,7 +15,8 @@ public class ListLiteralExpression extends Expression {
     private CatscriptType type;
 
     public ListLiteralExpression(List<Expression> values) {
-        this.values = new LinkedList<>();
+        this.values = new ArrayList<>(values.size());
+        reserveChildren(values.size());
         for (Expression value : values) {
             this.values.add(addChild(value));
         }
@@ -50,6 +51,10 @@ public class ListLiteralExpression extends Expression {
         return type;
     }
 
+    public void setType(CatscriptType type) {
+        this.type = type;
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
@@ -38,6 +38,16 @@ public class ParenthesizedExpression extends Expression {
         return expression.evaluate(runtime);
     }
 
+    @Override
+    public int evaluateInt(CatscriptRuntime runtime) {
+        return expression.evaluateInt(runtime);
+    }
+
+    @Override
+    public boolean evaluateBoolean(CatscriptRuntime runtime) {
+        return expression.evaluateBoolean(runtime);
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         javascript.append("(");
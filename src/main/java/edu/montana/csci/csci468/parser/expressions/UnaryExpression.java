@@ -12,10 +12,16 @@ import org.objectweb.asm.Opcodes;
 
 public class UnaryExpression extends Expression {
 
-    private final Token operator;
+    private final TokenType operator;
     private final Expression rightHandSide;
+    // set by validate(), unverified trees take the generic path, see AdditiveExpression
+    private boolean intNegate = false;
 
     public UnaryExpression(Token operator, Expression rightHandSide) {
+        this(operator.getType(), rightHandSide);
+    }
+
+    public UnaryExpression(TokenType operator, Expression rightHandSide) {
         this.rightHandSide = addChild(rightHandSide);
         this.operator = operator;
     }
@@ -25,7 +31,7 @@ public class UnaryExpression extends Expression {
     }
 
     public boolean isMinus() {
-        return operator.getType().equals(TokenType.MINUS);
+        return operator.equals(TokenType.MINUS);
     }
 
     public boolean isNot() {
@@ -34,7 +40,7 @@ public class UnaryExpression extends Expression {
 
     @Override
     public String toString() {
-        return super.toString() + "[" + operator.getStringValue() + "]";
+        return super.toString() + "[" + operator.getText() + "]";
     }
 
     @Override
@@ -45,6 +51,8 @@ public class UnaryExpression extends Expression {
         } else if(isMinus() && !rightHandSide.getType().equals(CatscriptType.INT)) {
             addError(ErrorType.INCOMPATIBLE_TYPES);
         }
+        // only negation of an int has a fast path, not keeps the generic code
+        intNegate = isMinus() && rightHandSide.getType() == CatscriptType.INT;
     }
 
     @Override
@@ -62,6 +70,21 @@ public class UnaryExpression extends Expression {
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
+        if (intNegate) {
+            return -rightHandSide.evaluateInt(runtime);
+        }
+        return evaluateGeneric(runtime);
+    }
+
+    @Override
+    public int evaluateInt(CatscriptRuntime runtime) {
+        if (intNegate) {
+            return -rightHandSide.evaluateInt(runtime);
+        }
+        return (Integer) evaluateGeneric(runtime);
+    }
+
+    private Object evaluateGeneric(CatscriptRuntime runtime) {
         if(getType() == CatscriptType.BOOLEAN){
             if (isNot()){
                 return false;
@@ -11,6 +11,8 @@ import edu.montana.csci.csci468.parser.expressions.Expression;
 public class AssignmentStatement extends Statement {
     private Expression expression;
     private String variableName;
+    private int frameDepth;
+    private int slot;
 
     public Expression getExpression() {
         return expression;
@@ -28,13 +30,30 @@ public class AssignmentStatement extends Statement {
         this.variableName = variableName;
     }
 
+    public int getFrameDepth() {
+        return frameDepth;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public void setSlot(int frameDepth, int slot) {
+        this.frameDepth = frameDepth;
+        this.slot = slot;
+    }
+
     @Override
     public void validate(SymbolTable symbolTable) {
-        CatscriptType symbolType = symbolTable.getSymbolType(getVariableName());
-        if (symbolType == null) {
+        expression.validate(symbolTable);
+        SymbolTable.Variable variable = symbolTable.getVariable(getVariableName());
+        if (variable == null) {
             addError(ErrorType.UNKNOWN_NAME);
-        } else if(!symbolType.isAssignableFrom(expression.getType())){
-            addError(ErrorType.INCOMPATIBLE_TYPES);
+        } else {
+            setSlot(symbolTable.getFrameDepth(variable), variable.getSlot());
+            if(!variable.getType().isAssignableFrom(expression.getType())){
+                addError(ErrorType.INCOMPATIBLE_TYPES);
+            }
         }
     }
 
@@ -43,7 +62,7 @@ public class AssignmentStatement extends Statement {
     //==============================================================
     @Override
     public void execute(CatscriptRuntime runtime) {
-        getExpression().evaluate(runtime);
+        runtime.setValue(frameDepth, slot, getExpression().evaluate(runtime));
     }
 
     @Override
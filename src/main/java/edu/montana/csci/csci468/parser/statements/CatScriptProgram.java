@@ -8,18 +8,21 @@ import edu.montana.csci.csci468.parser.expressions.Expression;
 import org.objectweb.asm.Opcodes;
 
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import static edu.montana.csci.csci468.bytecode.ByteCodeGenerator.internalNameFor;
 
 public class CatScriptProgram extends Statement {
 
     private StringBuffer output = new StringBuffer();
-    private List<Statement> statements = new LinkedList<>();
+    private List<Statement> statements = new ArrayList<>();
     private Map<String, FunctionDefinitionStatement> functions = new HashMap<>();
     private Expression expression;
+    private int frameSize;
 
     public void print(Object v) {
         output.append(v).append("\n");
@@ -58,6 +61,15 @@ public class CatScriptProgram extends Statement {
         return functions.get(name);
     }
 
+    // slots for the globals and the variables of top level blocks
+    public int getFrameSize() {
+        return frameSize;
+    }
+
+    public void setFrameSize(int frameSize) {
+        this.frameSize = frameSize;
+    }
+
     @Override
     public void validate(SymbolTable symbolTable) {
         if (expression != null) {
@@ -67,6 +79,37 @@ public class CatScriptProgram extends Statement {
                 statement.validate(symbolTable);
             }
         }
+        frameSize = symbolTable.getFrameSize();
+    }
+
+    // function bodies only read the globals, so once every other top level statement has
+    // been validated they are validated on the pool, each over the globals declared before it
+    @Override
+    public void validate(SymbolTable symbolTable, ForkJoinPool pool) {
+        if (expression != null) {
+            expression.validate(symbolTable);
+            return;
+        }
+        List<FunctionDefinitionStatement> functions = new ArrayList<>();
+        List<SymbolTable> scopes = new ArrayList<>();
+        for (Statement statement : statements) {
+            if (statement instanceof FunctionDefinitionStatement) {
+                functions.add((FunctionDefinitionStatement) statement);
+                scopes.add(symbolTable.layeredScope());
+            } else {
+                statement.validate(symbolTable);
+            }
+        }
+        List<ForkJoinTask<?>> bodies = new ArrayList<>(functions.size());
+        for (int i = 0; i < functions.size(); i++) {
+            FunctionDefinitionStatement function = functions.get(i);
+            SymbolTable scope = scopes.get(i);
+            bodies.add(pool.submit(() -> function.validate(scope)));
+        }
+        for (ForkJoinTask<?> body : bodies) {
+            body.join();
+        }
+        frameSize = symbolTable.getFrameSize();
     }
 
     public void execute() {
@@ -78,6 +121,7 @@ public class CatScriptProgram extends Statement {
     //==============================================================
     @Override
     public void execute(CatscriptRuntime runtime) {
+        runtime.enterProgram(frameSize);
         if (expression != null) {
             print(expression.evaluate(runtime));
         } else {
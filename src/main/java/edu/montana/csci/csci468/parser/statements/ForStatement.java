@@ -6,12 +6,12 @@ import edu.montana.csci.csci468.parser.*;
 import edu.montana.csci.csci468.parser.expressions.Expression;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 public class ForStatement extends Statement {
     private Expression expression;
     private String variableName;
+    private int slot;
     private List<Statement> body;
 
     public void setExpression(Expression expression) {
@@ -23,7 +23,8 @@ public class ForStatement extends Statement {
     }
 
     public void setBody(List<Statement> statements) {
-        this.body = new LinkedList<>();
+        this.body = new ArrayList<>(statements.size());
+        reserveChildren(statements.size());
         for (Statement statement : statements) {
             this.body.add(addChild(statement));
         }
@@ -41,6 +42,15 @@ public class ForStatement extends Statement {
         return body;
     }
 
+    // the loop variable's slot, always in the frame the loop runs in
+    public int getSlot() {
+        return slot;
+    }
+
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
     @Override
     public void validate(SymbolTable symbolTable) {
         symbolTable.pushScope();
@@ -50,10 +60,10 @@ public class ForStatement extends Statement {
             expression.validate(symbolTable);
             CatscriptType type = expression.getType();
             if (type instanceof CatscriptType.ListType) {
-                symbolTable.registerSymbol(variableName, getComponentType());
+                slot = symbolTable.registerSymbol(variableName, getComponentType()).getSlot();
             } else {
                 addError(ErrorType.INCOMPATIBLE_TYPES, getStart());
-                symbolTable.registerSymbol(variableName, CatscriptType.OBJECT);
+                slot = symbolTable.registerSymbol(variableName, CatscriptType.OBJECT).getSlot();
             }
         }
         for (Statement statement : body) {
@@ -72,7 +82,7 @@ public class ForStatement extends Statement {
     @Override
     public void execute(CatscriptRuntime runtime) {
         for (ParseElement child : expression.getChildren()) {
-            runtime.setValue(variableName, child);
+            runtime.setValue(0, slot, child);
 
             for (Statement statement : body) {
                 expression.evaluate(runtime);
@@ -15,6 +15,10 @@ public class FunctionCallStatement extends Statement {
         this.expression = addChild(parseExpression);
     }
 
+    public FunctionCallExpression getExpression() {
+        return expression;
+    }
+
     public List<Expression> getArguments() {
         return expression.getArguments();
     }
@@ -2,6 +2,7 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.Frame;
 import edu.montana.csci.csci468.eval.ReturnException;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
@@ -10,7 +11,6 @@ import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.TypeLiteral;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 import static edu.montana.csci.csci468.bytecode.ByteCodeGenerator.internalNameFor;
@@ -20,7 +20,9 @@ public class FunctionDefinitionStatement extends Statement {
     private CatscriptType type;
     private List<CatscriptType> argumentTypes = new ArrayList<>();
     private List<String> argumentNames = new ArrayList<>();
-    private LinkedList<Statement> body;
+    private List<Statement> body;
+    // parameters take the first slots of the frame, in order
+    private int frameSize;
 
     public void setName(String name) {
         this.name = name;
@@ -66,7 +68,8 @@ public class FunctionDefinitionStatement extends Statement {
     }
 
     public void setBody(List<Statement> statements) {
-        this.body = new LinkedList<>();
+        this.body = new ArrayList<>(statements.size());
+        reserveChildren(statements.size());
         for (Statement statement : statements) {
             this.body.add(addChild(statement));
         }
@@ -76,9 +79,17 @@ public class FunctionDefinitionStatement extends Statement {
         return body;
     }
 
+    public int getFrameSize() {
+        return frameSize;
+    }
+
+    public void setFrameSize(int frameSize) {
+        this.frameSize = frameSize;
+    }
+
     @Override
     public void validate(SymbolTable symbolTable) {
-        symbolTable.pushScope();
+        symbolTable.pushFrame();
         for (int i = 0; i < getParameterCount(); i++) {
             if (symbolTable.hasSymbol(getParameterName(i))) {
                 addError(ErrorType.DUPLICATE_NAME);
@@ -89,7 +100,7 @@ public class FunctionDefinitionStatement extends Statement {
         for (Statement statement : body) {
             statement.validate(symbolTable);
         }
-        symbolTable.popScope();
+        frameSize = symbolTable.popFrame();
         if (!type.equals(CatscriptType.VOID)) {
             if (!validateReturnCoverage(body)) {
                 addError(ErrorType.MISSING_RETURN_STATEMENT);
@@ -103,11 +114,17 @@ public class FunctionDefinitionStatement extends Statement {
     }
 
     public Object invoke(CatscriptRuntime runtime, List<Object> args) {
-        runtime.pushScope();
+        Frame frame = runtime.newFrame(frameSize);
         int parameterCount = getParameterCount();
         for (int i = 0; i < parameterCount; i++) {
-            runtime.setValue(getParameterName(i), args.get(i));
+            frame.setValue(i, args.get(i));
         }
+        return invoke(runtime, frame);
+    }
+
+    // runs the body in a frame from runtime.newFrame(), with the arguments in its first slots
+    public Object invoke(CatscriptRuntime runtime, Frame frame) {
+        runtime.pushFrame(frame);
         Object returnVal = null;
         try {
             for (Statement statement : body) {
@@ -116,7 +133,7 @@ public class FunctionDefinitionStatement extends Statement {
         } catch (ReturnException re) {
             returnVal = re.getValue();
         } finally {
-            runtime.popScope();
+            runtime.popFrame();
         }
         return returnVal;
     }
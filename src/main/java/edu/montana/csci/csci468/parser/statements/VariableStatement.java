@@ -14,6 +14,7 @@ public class VariableStatement extends Statement {
     private String variableName;
     private CatscriptType explicitType;
     private CatscriptType type;
+    private int slot;
 
     public Expression getExpression() {
         return expression;
@@ -39,6 +40,15 @@ public class VariableStatement extends Statement {
         return explicitType;
     }
 
+    // always in the frame the statement runs in
+    public int getSlot() {
+        return slot;
+    }
+
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
     public boolean isGlobal() {
         return getParent() instanceof CatScriptProgram;
     }
@@ -58,7 +68,7 @@ public class VariableStatement extends Statement {
             } else {
                 type = expression.getType();
             }
-            symbolTable.registerSymbol(variableName, type);
+            slot = symbolTable.registerSymbol(variableName, type).getSlot();
         }
     }
 
@@ -66,12 +76,16 @@ public class VariableStatement extends Statement {
         return type;
     }
 
+    public void setType(CatscriptType type) {
+        this.type = type;
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
     @Override
     public void execute(CatscriptRuntime runtime){
-        runtime.setValue(variableName,expression.evaluate(runtime));
+        runtime.setValue(0, slot, expression.evaluate(runtime));
     }
 
     @Override
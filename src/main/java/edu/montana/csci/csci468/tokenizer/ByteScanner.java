@@ -0,0 +1,113 @@
+package edu.montana.csci.csci468.tokenizer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Finds the next interesting byte of a source eight bytes at a time, with the bytes of
+ * a little endian long compared all at once (SWAR).  Every byte is one source char, so
+ * the results are positions in the source.
+ */
+class ByteScanner {
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long NEWLINES = '\n' * ONES;
+    private static final long QUOTES = '"' * ONES;
+    private static final long BACKSLASHES = '\\' * ONES;
+    private static final long SPACES = ' ' * ONES;
+    private static final long TABS = '\t' * ONES;
+    private static final long RETURNS = '\r' * ONES;
+
+    // one byte per char, chars that do not fit in a byte become 0 which nothing looks for
+    static ByteBuffer bytesOf(CharSequence source) {
+        return bytesOf(source, null);
+    }
+
+    // like bytesOf(source), but fills reuse when it is an array backed buffer that is big enough
+    static ByteBuffer bytesOf(CharSequence source, ByteBuffer reuse) {
+        if (source instanceof MappedSource) {
+            return ((MappedSource) source).bytes();
+        }
+        if (reuse != null && reuse.hasArray() && reuse.capacity() >= source.length()) {
+            fill(reuse.array(), source);
+            return reuse;
+        }
+        byte[] bytes = new byte[source.length()];
+        fill(bytes, source);
+        return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // not String.getBytes(ISO_8859_1), which turns those chars into '?' and surrogate pairs
+    // into a single one
+    private static void fill(byte[] bytes, CharSequence source) {
+        for (int i = 0; i < source.length(); i++) {
+            char c = source.charAt(i);
+            bytes[i] = c < 256 ? (byte) c : 0;
+        }
+    }
+
+    static int indexOfNewline(ByteBuffer bytes, int from, int limit) {
+        int i = from;
+        for (; i + 8 <= limit; i += 8) {
+            long found = matches(bytes.getLong(i), NEWLINES);
+            if (found != 0) {
+                return i + firstByte(found);
+            }
+        }
+        for (; i < limit; i++) {
+            if (bytes.get(i) == '\n') {
+                return i;
+            }
+        }
+        return limit;
+    }
+
+    // the next char that ends or interrupts a string literal body: a quote, backslash or newline
+    static int indexOfStringSpecial(ByteBuffer bytes, int from, int limit) {
+        int i = from;
+        for (; i + 8 <= limit; i += 8) {
+            long word = bytes.getLong(i);
+            long found = matches(word, QUOTES) | matches(word, BACKSLASHES) | matches(word, NEWLINES);
+            if (found != 0) {
+                return i + firstByte(found);
+            }
+        }
+        for (; i < limit; i++) {
+            byte b = bytes.get(i);
+            if (b == '"' || b == '\\' || b == '\n') {
+                return i;
+            }
+        }
+        return limit;
+    }
+
+    // the next char that is not a space, tab or carriage return
+    static int skipBlanks(ByteBuffer bytes, int from, int limit) {
+        int i = from;
+        for (; i + 8 <= limit; i += 8) {
+            long word = bytes.getLong(i);
+            long found = ~(matches(word, SPACES) | matches(word, TABS) | matches(word, RETURNS)) & ~LOW_BITS;
+            if (found != 0) {
+                return i + firstByte(found);
+            }
+        }
+        for (; i < limit; i++) {
+            byte b = bytes.get(i);
+            if (b != ' ' && b != '\t' && b != '\r') {
+                return i;
+            }
+        }
+        return limit;
+    }
+
+    // the high bit of exactly those bytes of word equal to the byte repeated in pattern
+    private static long matches(long word, long pattern) {
+        long x = word ^ pattern;
+        return ~(((x & LOW_BITS) + LOW_BITS) | x | LOW_BITS);
+    }
+
+    private static int firstByte(long found) {
+        return Long.numberOfTrailingZeros(found) >>> 3;
+    }
+}
@@ -1,41 +1,424 @@
 package edu.montana.csci.csci468.tokenizer;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
 import static edu.montana.csci.csci468.tokenizer.TokenType.*;
 
 public class CatScriptTokenizer {
 
+    static final int PARALLEL_CHUNK_SIZE = 1 << 20;
+    // what a reset tokenizer holds on to, anything bigger is dropped for a fresh allocation
+    static final int MAX_RETAINED_CHARS = 1 << 20;
+    static final int MAX_RETAINED_TOKENS = 1 << 16;
+
+    private static final ThreadLocal<CatScriptTokenizer> POOLED = ThreadLocal.withInitial(() -> new CatScriptTokenizer(""));
+
+    // what scanToken does with an ASCII char, every other char is unexpected
+    private static final byte OTHER = 0, DIGIT = 1, ALPHA = 2, QUOTE = 3, SINGLE = 4, OPERATOR = 5, SLASH_CHAR = 6;
+    private static final byte[] CHAR_CLASSES = new byte[128];
+    // the token a SINGLE or OPERATOR char makes on its own
+    private static final TokenType[] SINGLE_CHAR_TOKENS = new TokenType[128];
+    // the token an OPERATOR char makes together with a following '='
+    private static final TokenType[] EQUAL_SUFFIXED_TOKENS = new TokenType[128];
+    static {
+        for (char c = '0'; c <= '9'; c++) {
+            CHAR_CLASSES[c] = DIGIT;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            CHAR_CLASSES[c] = ALPHA;
+            CHAR_CLASSES[Character.toUpperCase(c)] = ALPHA;
+        }
+        CHAR_CLASSES['_'] = ALPHA;
+        CHAR_CLASSES['"'] = QUOTE;
+        CHAR_CLASSES['/'] = SLASH_CHAR;
+        for (TokenType type : new TokenType[]{LEFT_PAREN, RIGHT_PAREN, LEFT_BRACE, RIGHT_BRACE,
+                LEFT_BRACKET, RIGHT_BRACKET, COLON, COMMA, DOT, MINUS, PLUS, STAR}) {
+            char c = type.getText().charAt(0);
+            CHAR_CLASSES[c] = SINGLE;
+            SINGLE_CHAR_TOKENS[c] = type;
+        }
+        operator('=', EQUAL, EQUAL_EQUAL);
+        operator('!', NOT, BANG_EQUAL);
+        operator('>', GREATER, GREATER_EQUAL);
+        operator('<', LESS, LESS_EQUAL);
+    }
+
+    private static void operator(char c, TokenType single, TokenType equalSuffixed) {
+        CHAR_CLASSES[c] = OPERATOR;
+        SINGLE_CHAR_TOKENS[c] = single;
+        EQUAL_SUFFIXED_TOKENS[c] = equalSuffixed;
+    }
+
     TokenList tokenList;
-    String src;
+    CharSequence src;
+    // src one byte per char, for the loops that scan it with ByteScanner
+    ByteBuffer bytes;
+    boolean utf8;
     int postion = 0;
+    int limit;
     int line = 1;
-    int lineOffset = 0;
+    int lineStart = 0;
+    LineIndex lines;
+    NameTable names;
+    boolean finished = false;
+    // tokenize() stops early once the list has more tokens than this
+    int maxTokens = Integer.MAX_VALUE;
+    // bumped by reset(), so tokens of an earlier source can tell they are stale
+    int generation = 0;
 
     public CatScriptTokenizer(String source) {
+        this(source, false);
+    }
+
+    /**
+     * When streaming is true no tokens are scanned up front: the token list pulls
+     * them from the tokenizer as the parser advances and only keeps a small window
+     */
+    public CatScriptTokenizer(String source, boolean streaming) {
+        this((CharSequence) source, streaming);
+    }
+
+    CatScriptTokenizer(CharSequence source, boolean streaming) {
+        src = source;
+        bytes = ByteScanner.bytesOf(source);
+        limit = source.length();
+        utf8 = source instanceof MappedSource;
+        lines = new LineIndex(source);
+        names = new NameTable();
+        tokenList = new TokenList(this, streaming);
+        if (!streaming) {
+            tokenize();
+        }
+    }
+
+    private CatScriptTokenizer(CharSequence source, ByteBuffer bytes, NameTable names) {
+        src = source;
+        this.bytes = bytes;
+        limit = source.length();
+        lines = new LineIndex(source);
+        this.names = names;
+        tokenList = new TokenList(this, false);
+    }
+
+    // tokenizes just [from, to) of source, from being the start of a line
+    private CatScriptTokenizer(CharSequence source, ByteBuffer bytes, int from, int to) {
         src = source;
-        tokenList = new TokenList(this);
+        this.bytes = bytes;
+        postion = from;
+        limit = to;
+        lineStart = from;
+        lines = new LineIndex(source, from);
+        names = new NameTable();
+        tokenList = new TokenList(this, false);
         tokenize();
     }
 
+    /**
+     * Tokenizes source with a tokenizer owned by the calling thread, reusing its buffers.
+     * The tokens are only valid until the next call on the same thread, after which asking
+     * one for its text or line, or detaching it, throws IllegalStateException.  That holds
+     * for detached tokens too, so trees and errors must not outlive the call either.
+     */
+    public static CatScriptTokenizer pooled(String source) {
+        return POOLED.get().reset(source);
+    }
+
+    /**
+     * Like pooled(source), but scanning stops at the first token past maxTokens and the list
+     * is ended there with EOF, so a source that is too long costs no more than one that fits.
+     * The list then has more than maxTokens tokens, which a parse budget allowing maxTokens
+     * rejects before parsing starts.
+     */
+    public static CatScriptTokenizer pooled(String source, int maxTokens) {
+        return POOLED.get().reset(source, maxTokens);
+    }
+
+    public CatScriptTokenizer reset(String source) {
+        return reset(source, Integer.MAX_VALUE);
+    }
+
+    public CatScriptTokenizer reset(String source, int maxTokens) {
+        if (tokenList.isStreaming()) {
+            throw new UnsupportedOperationException("A streaming tokenizer cannot be reset");
+        }
+        src = source;
+        bytes = ByteScanner.bytesOf(source, bytes.capacity() <= MAX_RETAINED_CHARS ? bytes : null);
+        limit = source.length();
+        utf8 = false;
+        postion = 0;
+        line = 1;
+        lineStart = 0;
+        finished = false;
+        this.maxTokens = maxTokens;
+        generation++;
+        lines.clear(source, MAX_RETAINED_TOKENS);
+        names.clear(MAX_RETAINED_TOKENS);
+        tokenList.clear(MAX_RETAINED_TOKENS);
+        tokenize();
+        return this;
+    }
+
+    public static CatScriptTokenizer parallel(String source) {
+        return parallel(source, ForkJoinPool.commonPool());
+    }
+
+    public static CatScriptTokenizer parallel(String source, ForkJoinPool pool) {
+        return parallel(source, pool, PARALLEL_CHUNK_SIZE);
+    }
+
+    /**
+     * Tokenizes chunks of the source on the pool and stitches the results together.  Chunks
+     * start right after a newline, where only a string literal can carry over from the
+     * previous line; a chunk that ends inside an unterminated string is merged with the next
+     * one and scanned again, so the tokens are exactly the ones tokenize() would produce.
+     */
+    static CatScriptTokenizer parallel(String source, ForkJoinPool pool, int chunkSize) {
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+        int from = 0;
+        while (source.length() - from > chunkSize) {
+            int newline = source.indexOf('\n', from + chunkSize);
+            if (newline < 0) {
+                break;
+            }
+            from = newline + 1;
+            bounds.add(from);
+        }
+        bounds.add(source.length());
+
+        ByteBuffer bytes = ByteScanner.bytesOf(source);
+        List<ChunkTask> tasks = new ArrayList<>(bounds.size() - 1);
+        for (int i = 0; i < bounds.size() - 1; i++) {
+            ChunkTask task = new ChunkTask(source, bytes, bounds.get(i), bounds.get(i + 1));
+            tasks.add(task);
+            pool.execute(task);
+        }
+
+        List<CatScriptTokenizer> chunks = new ArrayList<>(tasks.size());
+        int tokenCount = 1;
+        for (int i = 0; i < tasks.size(); i++) {
+            CatScriptTokenizer chunk = tasks.get(i).join();
+            // the string did not end before the chunk did, scan on into the following chunks
+            while (i < tasks.size() - 1 && chunk.endsInsideString()) {
+                i++;
+                tasks.get(i).cancel(false);
+                chunk = new CatScriptTokenizer(source, bytes, chunk.firstLineStart(), bounds.get(i + 1));
+            }
+            chunks.add(chunk);
+            tokenCount += chunk.tokenList.produced - 1;
+        }
+
+        CatScriptTokenizer tokenizer = new CatScriptTokenizer(source, bytes, new NameTable());
+        tokenizer.tokenList.ensureCapacity(tokenCount);
+        for (int i = 0; i < chunks.size(); i++) {
+            tokenizer.append(chunks.get(i), i == chunks.size() - 1);
+        }
+        tokenizer.postion = source.length();
+        tokenizer.line = tokenizer.lines.getLineCount();
+        tokenizer.lineStart = tokenizer.lines.lineStart(tokenizer.line);
+        tokenizer.finished = true;
+        return tokenizer;
+    }
+
+    private static class ChunkTask extends RecursiveTask<CatScriptTokenizer> {
+        private final String source;
+        private final ByteBuffer bytes;
+        private final int from;
+        private final int to;
+
+        ChunkTask(String source, ByteBuffer bytes, int from, int to) {
+            this.source = source;
+            this.bytes = bytes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected CatScriptTokenizer compute() {
+            return new CatScriptTokenizer(source, bytes, from, to);
+        }
+    }
+
+    private boolean endsInsideString() {
+        // the chunk ends in a newline, so only an unterminated string error can reach its end
+        int last = tokenList.produced - 2;
+        return last >= 0 && tokenList.types[last] == ERROR.ordinal() && tokenList.ends[last] == limit;
+    }
+
+    private int firstLineStart() {
+        return lines.lineStart(1);
+    }
+
+    private void append(CatScriptTokenizer chunk, boolean last) {
+        int lineDelta = lines.getLineCount() - 1;
+        lines.appendShifted(chunk.lines, 2, chunk.lines.getLineCount() + 1, 0);
+        int count = last ? chunk.tokenList.produced : chunk.tokenList.produced - 1;
+        tokenList.appendShifted(chunk.tokenList, 0, count, 0, lineDelta);
+        names.addAll(chunk.names);
+    }
+
+    /**
+     * Tokenizes previous.src with an edit applied.  Every token that ends, lookahead char
+     * included, before the edit is kept; lexing restarts right after the last of them and
+     * stops as soon as a new token ends where an old one did past the edit, at which point
+     * the rest of the old tokens are copied over with shifted positions and lines.
+     */
+    static CatScriptTokenizer applyEdit(CatScriptTokenizer previous, int offset, int removedLength, String insertedText) {
+        if (previous.tokenList.isStreaming() || previous.utf8 || previous.maxTokens != Integer.MAX_VALUE) {
+            throw new UnsupportedOperationException("Only fully tokenized String sources can be edited");
+        }
+        CharSequence oldSrc = previous.src;
+        if (offset < 0 || removedLength < 0 || offset + removedLength > oldSrc.length()) {
+            throw new IndexOutOfBoundsException("Edit [" + offset + ", " + (offset + removedLength) +
+                    ") is outside of a source of length " + oldSrc.length());
+        }
+        String newSrc = new StringBuilder(oldSrc.length() - removedLength + insertedText.length())
+                .append(oldSrc, 0, offset)
+                .append(insertedText)
+                .append(oldSrc, offset + removedLength, oldSrc.length())
+                .toString();
+        int delta = insertedText.length() - removedLength;
+        int editEnd = offset + insertedText.length();
+
+        TokenList oldTokens = previous.tokenList;
+        // a copy, so the previous list's table never changes under it; names that edits took
+        // out of the source stay in the copies, so a table holding more names than the source
+        // has tokens is dropped and the names are interned again as they are read
+        NameTable names = previous.names.size() > oldTokens.produced ? new NameTable() : new NameTable(previous.names);
+        CatScriptTokenizer tokenizer = new CatScriptTokenizer(newSrc, ByteScanner.bytesOf(newSrc), names);
+        // sized for an edit that does not change the token count much
+        tokenizer.tokenList.ensureCapacity(oldTokens.produced + 16);
+        int kept = oldTokens.lastTokenEndingBefore(offset) + 1;
+        tokenizer.postion = kept > 0 ? oldTokens.lexemeEnd(kept - 1) : 0;
+        tokenizer.line = previous.lines.lineOf(tokenizer.postion);
+        tokenizer.lineStart = previous.lines.lineStart(tokenizer.line);
+        tokenizer.lines.appendShifted(previous.lines, 2, tokenizer.line + 1, 0);
+        tokenizer.tokenList.appendShifted(oldTokens, 0, kept, 0, 0);
+
+        TokenList newTokens = tokenizer.tokenList;
+        int old = kept;
+        while (tokenizer.scanNextToken()) {
+            int last = newTokens.produced - 1;
+            if (newTokens.types[last] == EOF.ordinal()) {
+                break;
+            }
+            int end = newTokens.lexemeEnd(last);
+            if (end < editEnd) {
+                continue;
+            }
+            while (old < oldTokens.produced - 1 && oldTokens.lexemeEnd(old) < end - delta) {
+                old++;
+            }
+            if (old < oldTokens.produced - 1 && oldTokens.lexemeEnd(old) == end - delta) {
+                tokenizer.resync(previous, old, end, delta);
+                break;
+            }
+        }
+        return tokenizer;
+    }
+
+    // the text after end is the same as the old text after end - delta, so reuse the old tokens past syncToken
+    private void resync(CatScriptTokenizer previous, int syncToken, int end, int delta) {
+        // scanNextToken may have consumed whitespace, and newlines, past the end of the token
+        int syncLine = lines.lineOf(end);
+        lines.truncate(syncLine);
+        int oldSyncLine = previous.lines.lineOf(end - delta);
+        int lineDelta = syncLine - oldSyncLine;
+        lines.appendShifted(previous.lines, oldSyncLine + 1, previous.lines.getLineCount() + 1, delta);
+
+        int first = tokenList.produced;
+        tokenList.appendShifted(previous.tokenList, syncToken + 1, previous.tokenList.produced, delta, lineDelta);
+        // tokens sharing a line with the edit moved within that line
+        int columnDelta = delta - (lines.lineStart(syncLine) - previous.lines.lineStart(oldSyncLine));
+        for (int i = first; i < tokenList.produced && tokenList.lines[i] == syncLine; i++) {
+            tokenList.lineOffsets[i] += columnDelta;
+        }
+        postion = src.length();
+        line = lines.getLineCount();
+        lineStart = lines.lineStart(line);
+        finished = true;
+    }
+
+    /**
+     * Tokenizes an ASCII/UTF-8 file straight out of a memory mapped buffer, without
+     * reading it into a String first.  Token positions are byte offsets into the file.
+     */
+    public static CatScriptTokenizer forFile(Path path) throws IOException {
+        return forFile(path, false);
+    }
+
+    public static CatScriptTokenizer forFile(Path path, boolean streaming) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("File is too large to tokenize: " + path);
+            }
+            // the mapping stays valid after the channel is closed
+            MappedSource source = new MappedSource(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            return new CatScriptTokenizer(source, streaming);
+        }
+    }
+
     private void tokenize() {
+        while (scanNextToken()) {
+            if (tokenList.produced > maxTokens && !finished) {
+                tokenList.addToken(EOF, postion, postion, line, postion - lineStart);
+                finished = true;
+            }
+        }
+    }
+
+    /**
+     * Scans until exactly one more token has been added to the token list,
+     * returning false once the EOF token has already been produced
+     */
+    boolean scanNextToken() {
+        if (finished) {
+            return false;
+        }
+        int produced = tokenList.produced;
         consumeWhitespace();
         while (!tokenizationEnd()) {
             scanToken();
             consumeWhitespace();
+            if (tokenList.produced > produced) {
+                return true;
+            }
         }
-        tokenList.addToken(EOF, "<EOF>", postion, postion, line, lineOffset);
+        tokenList.addToken(EOF, postion, postion, line, postion - lineStart);
+        finished = true;
+        return true;
+    }
+
+    void rewind() {
+        postion = 0;
+        line = 1;
+        lineStart = 0;
+        finished = false;
     }
 
     private void scanToken() {
-        if(scanNumber()) {
-            return;
-        }
-        if(scanString()) {
-            return;
-        }
-        if(scanIdentifier()) {
-            return;
+        char c = src.charAt(postion);
+        switch (c < 128 ? CHAR_CLASSES[c] : OTHER) {
+            case DIGIT:
+                scanNumber();
+                break;
+            case QUOTE:
+                scanString();
+                break;
+            case ALPHA:
+                scanIdentifier();
+                break;
+            default:
+                scanSyntax(c);
         }
-        scanSyntax();
     }
 
     private boolean scanString() {
@@ -43,23 +426,36 @@ public class CatScriptTokenizer {
         if (peek() == '"') {
             takeChar();
             int start = postion;
-            while (peek() != '"' && !tokenizationEnd()) {
+            int newlines = 0;
+            int lastLineStart = lineStart;
+            while (true) {
+                postion = ByteScanner.indexOfStringSpecial(bytes, postion, limit);
+                if (tokenizationEnd() || peek() == '"') {
+                    break;
+                }
                 if(peek() == '\\') {
                     takeChar();
                 }
 
                 if(!tokenizationEnd()) {
-                    takeChar();
+                    if (takeChar() == '\n') {
+                        newlines++;
+                        lastLineStart = postion;
+                        lines.addLine(line + newlines, postion);
+                    }
                 }
             }
 
             if(!tokenizationEnd()) {
-                tokenList.addToken(STRING, src.substring(start, postion), start, postion, line, lineOffset);
+                tokenList.addToken(STRING, start, postion, line, start - lineStart);
                 takeChar();
             }
             else {
-                tokenList.addToken(ERROR, "Missing expected '\"' here", start, postion, line, lineOffset);
+                tokenList.addErrorToken("Missing expected '\"' here", start, postion, line, start - lineStart);
             }
+            // the token belongs to the line it starts on, later tokens to the line it ends on
+            line += newlines;
+            lineStart = lastLineStart;
 
             return true;
         } else {
@@ -71,98 +467,110 @@ public class CatScriptTokenizer {
         if( isAlpha(peek())) {
             int start = postion;
             while (isAlphaNumeric(peek())) {
-                lineOffset++;
-                takeChar();
+                postion++;
             }
-            String value = src.substring(start, postion);
-            if (KEYWORDS.containsKey(value)) {
-                tokenList.addToken(KEYWORDS.get(value), value, start, postion, line, lineOffset);
-            } else {
-                tokenList.addToken(IDENTIFIER, value, start, postion, line, lineOffset);
+            TokenType type = keywordOrIdentifier(start, postion);
+            if (type == IDENTIFIER) {
+                names.intern(src, start, postion);
             }
+            tokenList.addToken(type, start, postion, line, start - lineStart);
             return true;
         } else {
             return false;
         }
     }
 
+    // classifies keywords on the source characters so no String is created for them
+    private TokenType keywordOrIdentifier(int start, int end) {
+        switch (end - start) {
+            case 2:
+                if (src.charAt(start) == 'i') {
+                    char c = src.charAt(start + 1);
+                    if (c == 'f') return IF;
+                    if (c == 'n') return IN;
+                }
+                return IDENTIFIER;
+            case 3:
+                switch (src.charAt(start)) {
+                    case 'f': return keyword(start, FOR);
+                    case 'n': return keyword(start, NOT);
+                    case 'v': return keyword(start, VAR);
+                }
+                return IDENTIFIER;
+            case 4:
+                switch (src.charAt(start)) {
+                    case 'e': return keyword(start, ELSE);
+                    case 'n': return keyword(start, NULL);
+                    case 't': return keyword(start, TRUE);
+                }
+                return IDENTIFIER;
+            case 5:
+                switch (src.charAt(start)) {
+                    case 'f': return keyword(start, FALSE);
+                    case 'p': return keyword(start, PRINT);
+                }
+                return IDENTIFIER;
+            case 6:
+                return keyword(start, RETURN);
+            case 8:
+                return keyword(start, FUNCTION);
+            default:
+                return IDENTIFIER;
+        }
+    }
+
+    private TokenType keyword(int start, TokenType keyword) {
+        String text = keyword.getText();
+        for (int i = 0; i < text.length(); i++) {
+            if (src.charAt(start + i) != text.charAt(i)) {
+                return IDENTIFIER;
+            }
+        }
+        return keyword;
+    }
+
     private boolean scanNumber() {
         if(isDigit(peek())) {
             int start = postion;
             while (isDigit(peek())) {
                 takeChar();
             }
-            tokenList.addToken(INTEGER, src.substring(start, postion), start, postion, line, lineOffset);
+            tokenList.addToken(INTEGER, start, postion, line, start - lineStart);
             return true;
         } else {
             return false;
         }
     }
 
-    private void scanSyntax() {
-        //Finished
-        // TODO - implement rest of syntax scanning
-        //      - implement comments
+    private void scanSyntax(char c) {
         int start = postion;
-        if(matchAndConsume('+')) {
-            tokenList.addToken(PLUS, "+", start, postion, line, lineOffset);
-        } else if(matchAndConsume('*')) {
-            tokenList.addToken(STAR, "*", start, postion, line, lineOffset);
-        } else if(matchAndConsume('-')) {
-            tokenList.addToken(MINUS, "-", start, postion, line, lineOffset);
-        } else if(matchAndConsume('/')) {
-            if (matchAndConsume('/')) {
-                while (peek() != '\n' && !tokenizationEnd()) {
-                    takeChar();
+        takeChar();
+        switch (c < 128 ? CHAR_CLASSES[c] : OTHER) {
+            case SINGLE:
+                tokenList.addToken(SINGLE_CHAR_TOKENS[c], start, postion, line, start - lineStart);
+                break;
+            case OPERATOR:
+                if (matchAndConsume('=')) {
+                    tokenList.addToken(EQUAL_SUFFIXED_TOKENS[c], start, postion, line, start - lineStart);
+                } else {
+                    tokenList.addToken(SINGLE_CHAR_TOKENS[c], start, postion, line, start - lineStart);
                 }
-            } else {
-                tokenList.addToken(SLASH, "-", start, postion, line, lineOffset);
-            }
-        } else if(matchAndConsume('=')) {
-            if (matchAndConsume('=')) {
-                tokenList.addToken(EQUAL_EQUAL, "==", start, postion, line, lineOffset);
-            } else {
-                tokenList.addToken(EQUAL, "=", start, postion, line, lineOffset);
-            }
-        } else if(matchAndConsume('!')) {
-            if (matchAndConsume('=')) {
-                tokenList.addToken(BANG_EQUAL, "!=", start, postion, line, lineOffset);
-            } else {
-                tokenList.addToken(NOT, "!", start, postion, line, lineOffset);
-            }
-        } else if(matchAndConsume('>')) {
-            if (matchAndConsume('=')) {
-                tokenList.addToken(GREATER_EQUAL, ">=", start, postion, line, lineOffset);
-            } else {
-                tokenList.addToken(GREATER, ">", start, postion, line, lineOffset);
-            }
-        } else if(matchAndConsume('<')) {
-            if (matchAndConsume('=')) {
-                tokenList.addToken(LESS_EQUAL, "<=", start, postion, line, lineOffset);
-            } else {
-                tokenList.addToken(LESS, "<", start, postion, line, lineOffset);
-            }
-        } else if(matchAndConsume('(')){
-            tokenList.addToken(LEFT_PAREN, "(", start, postion, line, lineOffset);
-        } else if(matchAndConsume(')')){
-            tokenList.addToken(RIGHT_PAREN, ")", start, postion, line, lineOffset);
-        } else if(matchAndConsume('[')){
-            tokenList.addToken(LEFT_BRACKET, "[", start, postion, line, lineOffset);
-        } else if(matchAndConsume(']')){
-            tokenList.addToken(RIGHT_BRACKET, "]", start, postion, line, lineOffset);
-        } else if(matchAndConsume('{')){
-            tokenList.addToken(LEFT_BRACE, "{", start, postion, line, lineOffset);
-        } else if(matchAndConsume('}')){
-            tokenList.addToken(RIGHT_BRACE, "}", start, postion, line, lineOffset);
-        } else if(matchAndConsume(':')){
-            tokenList.addToken(COLON, ":", start, postion, line, lineOffset);
-        } else if(matchAndConsume(',')){
-            tokenList.addToken(COMMA, ",", start, postion, line, lineOffset);
-        } else if(matchAndConsume('.')){
-            tokenList.addToken(DOT, ".", start, postion, line, lineOffset);
-        } else
-        {
-            tokenList.addToken(ERROR, "<Unexpected Token: [" + takeChar() + "]>", start, postion, line, lineOffset);
+                break;
+            case SLASH_CHAR:
+                if (matchAndConsume('/')) {
+                    postion = ByteScanner.indexOfNewline(bytes, postion, limit);
+                } else {
+                    tokenList.addToken(SLASH, start, postion, line, start - lineStart);
+                }
+                break;
+            default:
+                if (utf8) {
+                    // report a multi-byte character as one unexpected token, like the String path does
+                    while (!tokenizationEnd() && MappedSource.isContinuationByte(peek())) {
+                        takeChar();
+                    }
+                }
+                tokenList.addErrorToken("<Unexpected Token: [" + src.subSequence(start, postion) + "]>", start, postion, line, start - lineStart);
         }
     }
 
@@ -172,14 +580,14 @@ public class CatScriptTokenizer {
         while (!tokenizationEnd()) {
             char c = peek();
             if (c == ' ' || c == '\r' || c == '\t') {
-                postion++;
-                lineOffset++;
+                postion = ByteScanner.skipBlanks(bytes, postion + 1, limit);
                 continue;
             }
             else if (c == '\n') {
                 postion++;
                 line++;
-                lineOffset = 0;
+                lineStart = postion;
+                lines.addLine(line, lineStart);
                 continue;
             }
             break;
@@ -196,13 +604,11 @@ public class CatScriptTokenizer {
     }
 
     private boolean isAlpha(char c) {
-        return (c >= 'a' && c <= 'z') ||
-                (c >= 'A' && c <= 'Z') ||
-                c == '_';
+        return c < 128 && CHAR_CLASSES[c] == ALPHA;
     }
 
     private boolean isAlphaNumeric(char c) {
-        return isAlpha(c) || isDigit(c);
+        return c < 128 && (CHAR_CLASSES[c] == ALPHA || CHAR_CLASSES[c] == DIGIT);
     }
 
     private boolean isDigit(char c) {
@@ -216,7 +622,7 @@ public class CatScriptTokenizer {
     }
 
     private boolean tokenizationEnd() {
-        return postion >= src.length();
+        return postion >= limit;
     }
 
     public boolean matchAndConsume(char c) {
@@ -227,6 +633,14 @@ public class CatScriptTokenizer {
         return false;
     }
 
+    public NameTable getNames() {
+        return names;
+    }
+
+    public LineIndex getLines() {
+        return lines;
+    }
+
     public TokenList getTokens() {
         return tokenList;
     }
@@ -236,9 +650,9 @@ public class CatScriptTokenizer {
         if (tokenizationEnd()) {
             return src + "-->[]<--";
         } else {
-            return src.substring(0, postion) + "-->[" + peek() + "]<--" +
+            return src.subSequence(0, postion) + "-->[" + peek() + "]<--" +
                     ((postion == src.length() - 1) ? "" :
-                            src.substring(postion + 1, src.length() - 1));
+                            src.subSequence(postion + 1, src.length() - 1));
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package edu.montana.csci.csci468.tokenizer;
+
+class DetachedToken extends Token {
+
+    private final LineIndex lines;
+    private final int generation;
+
+    DetachedToken(Token token, LineIndex lines) {
+        super(token);
+        this.lines = lines;
+        this.generation = lines.generation;
+    }
+
+    DetachedToken(int start, int end, int line, int lineOffset, TokenType type, int index, LineIndex lines) {
+        super(start, end, line, lineOffset, type, index);
+        this.lines = lines;
+        this.generation = lines.generation;
+    }
+
+    @Override
+    public String getStringValue() {
+        if (stringValue == null) {
+            checkGeneration(lines.generation, generation);
+            stringValue = TokenList.sourceText(type, lines.getSource(), start, end);
+        }
+        return stringValue;
+    }
+
+    @Override
+    public Token detach() {
+        return this;
+    }
+
+    @Override
+    public String getLineContent() {
+        checkGeneration(lines.generation, generation);
+        return lines.lineContent(line);
+    }
+}
@@ -0,0 +1,117 @@
+package edu.montana.csci.csci468.tokenizer;
+
+import java.util.Arrays;
+
+/**
+ * The offset at which every line of a source starts, recorded by the tokenizer as it
+ * scans.  Lines are 1-based, like Token.getLine().
+ */
+public class LineIndex {
+
+    private CharSequence src;
+    private int[] starts = new int[64];
+    private int count = 1;
+    // bumped by clear(), see Token.checkGeneration()
+    int generation = 0;
+
+    LineIndex(CharSequence src) {
+        this.src = src;
+    }
+
+    LineIndex(CharSequence src, int firstLineStart) {
+        this.src = src;
+        starts[0] = firstLineStart;
+    }
+
+    // the index the tokenizer would record for src
+    public static LineIndex of(String src) {
+        LineIndex lines = new LineIndex(src);
+        int newline = src.indexOf('\n');
+        while (newline >= 0) {
+            lines.addLine(lines.count + 1, newline + 1);
+            newline = src.indexOf('\n', newline + 1);
+        }
+        return lines;
+    }
+
+    void addLine(int line, int start) {
+        // a rewound streaming tokenizer scans the same lines again
+        if (line <= count) {
+            return;
+        }
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count + (count >> 1));
+        }
+        starts[count++] = start;
+    }
+
+    // copies the starts of lines [from, to) of another index, moved by delta chars
+    void appendShifted(LineIndex other, int from, int to, int delta) {
+        int lineCount = to - from;
+        if (count + lineCount > starts.length) {
+            starts = Arrays.copyOf(starts, count + lineCount + (count >> 1));
+        }
+        System.arraycopy(other.starts, from - 1, starts, count, lineCount);
+        if (delta != 0) {
+            for (int i = count; i < count + lineCount; i++) {
+                starts[i] += delta;
+            }
+        }
+        count += lineCount;
+    }
+
+    void clear(CharSequence src, int maxRetained) {
+        this.src = src;
+        generation++;
+        if (starts.length > maxRetained) {
+            starts = new int[64];
+        }
+        count = 1;
+    }
+
+    void truncate(int lineCount) {
+        count = lineCount;
+    }
+
+    public CharSequence getSource() {
+        return src;
+    }
+
+    public int getLineCount() {
+        return count;
+    }
+
+    public int lineStart(int line) {
+        return starts[line - 1];
+    }
+
+    public int lineEnd(int line) {
+        if (line < count) {
+            // drop the newline
+            return starts[line] - 1;
+        }
+        return src.length();
+    }
+
+    public int lineOf(int offset) {
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (starts[mid] <= offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low + 1;
+    }
+
+    public int columnOf(int offset) {
+        return offset - lineStart(lineOf(offset));
+    }
+
+    public String lineContent(int line) {
+        return src.subSequence(lineStart(line), lineEnd(line)).toString();
+    }
+}
@@ -0,0 +1,108 @@
+package edu.montana.csci.csci468.tokenizer;
+
+import java.util.Arrays;
+
+/**
+ * Interns identifier names straight from the source characters, so each distinct
+ * name is turned into a String once per compilation and looked up without allocating
+ * after that.
+ */
+public class NameTable {
+
+    private String[] names = new String[256];
+    private int[] hashes = new int[256];
+    private int size = 0;
+
+    public NameTable() {
+    }
+
+    // an independent copy holding the same String instances
+    NameTable(NameTable other) {
+        names = other.names.clone();
+        hashes = other.hashes.clone();
+        size = other.size;
+    }
+
+    public String intern(CharSequence src, int start, int end) {
+        int hash = hash(src, start, end);
+        int mask = names.length - 1;
+        int i = hash & mask;
+        while (names[i] != null) {
+            if (hashes[i] == hash && matches(names[i], src, start, end)) {
+                return names[i];
+            }
+            i = (i + 1) & mask;
+        }
+        String name = src.subSequence(start, end).toString();
+        names[i] = name;
+        hashes[i] = hash;
+        if (++size * 2 > names.length) {
+            rehash();
+        }
+        return name;
+    }
+
+    public String intern(String name) {
+        return intern(name, 0, name.length());
+    }
+
+    void clear(int maxRetained) {
+        if (names.length > maxRetained) {
+            names = new String[256];
+            hashes = new int[256];
+        } else {
+            Arrays.fill(names, null);
+        }
+        size = 0;
+    }
+
+    void addAll(NameTable other) {
+        for (String name : other.names) {
+            if (name != null) {
+                intern(name);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static int hash(CharSequence src, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + src.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(String name, CharSequence src, int start, int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != src.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        String[] oldNames = names;
+        int[] oldHashes = hashes;
+        names = new String[oldNames.length * 2];
+        hashes = new int[oldNames.length * 2];
+        int mask = names.length - 1;
+        for (int j = 0; j < oldNames.length; j++) {
+            if (oldNames[j] != null) {
+                int i = oldHashes[j] & mask;
+                while (names[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                names[i] = oldNames[j];
+                hashes[i] = oldHashes[j];
+            }
+        }
+    }
+}
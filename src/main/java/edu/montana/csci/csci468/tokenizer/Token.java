@@ -1,5 +1,9 @@
 package edu.montana.csci.csci468.tokenizer;
 
+/**
+ * A lightweight view of one entry in a TokenList.  The text of the token is only
+ * sliced out of the source the first time getStringValue() is called.
+ */
 public class Token {
 
     int start;
@@ -8,16 +12,69 @@ public class Token {
     int lineOffset;
     String stringValue;
     TokenType type;
-    private final CatScriptTokenizer tokenizer;
+    final int index;
+    private final TokenList tokens;
+    // the tokenizer's generation when this token was made, see CatScriptTokenizer.pooled()
+    private final int generation;
 
-    public Token(int start, int end, int line, int lineOffset, String stringValue, TokenType type, CatScriptTokenizer tokenizer) {
+    Token(int start, int end, int line, int lineOffset, TokenType type, int index, TokenList tokens) {
         this.start = start;
         this.end = end;
         this.line = line;
         this.lineOffset = lineOffset;
-        this.stringValue = stringValue;
         this.type = type;
-        this.tokenizer = tokenizer;
+        this.index = index;
+        this.tokens = tokens;
+        this.generation = tokens.generation();
+        if (type == TokenType.ERROR || type == TokenType.EOF) {
+            // error messages are not kept once a streaming window moves past them
+            this.stringValue = tokens.textOf(this);
+        }
+    }
+
+    // a copy that owns its text, for DetachedToken
+    Token(Token token) {
+        this.start = token.start;
+        this.end = token.end;
+        this.line = token.line;
+        this.lineOffset = token.lineOffset;
+        this.type = token.type;
+        this.index = token.index;
+        this.tokens = null;
+        this.generation = 0;
+        this.stringValue = token.getStringValue();
+    }
+
+    // a token without a list whose text is sliced from its source on demand, for DetachedToken
+    Token(int start, int end, int line, int lineOffset, TokenType type, int index) {
+        this.start = start;
+        this.end = end;
+        this.line = line;
+        this.lineOffset = lineOffset;
+        this.type = type;
+        this.index = index;
+        this.tokens = null;
+        this.generation = 0;
+    }
+
+    /**
+     * Recreates a token of a source from its recorded position, for trees that are loaded
+     * rather than parsed.
+     */
+    public static Token restore(LineIndex lines, TokenType type, int index, int start, int end, int line, int lineOffset) {
+        return new DetachedToken(start, end, line, lineOffset, type, index, lines);
+    }
+
+    /**
+     * A copy of this token that only keeps its position, type and text plus the line index
+     * of its source, so holding on to it does not keep the token list alive.
+     */
+    public Token detach() {
+        return new DetachedToken(this, tokens().getLines());
+    }
+
+    public int getIndex() {
+        return index;
     }
 
     public int getStart() {
@@ -37,6 +94,9 @@ public class Token {
     }
 
     public String getStringValue() {
+        if (stringValue == null) {
+            stringValue = tokens().textOf(this);
+        }
         return stringValue;
     }
 
@@ -46,7 +106,7 @@ public class Token {
 
     @Override
     public String toString() {
-        return "Token(\"" + stringValue + "\"){" +
+        return "Token(\"" + getStringValue() + "\"){" +
                 "type=" + type +
                 ", start=" + start +
                 ", end=" + end +
@@ -56,7 +116,17 @@ public class Token {
     }
 
     public String getLineContent() {
-        String[] lines = tokenizer.src.split("\n");
-        return lines[line - 1];
+        return tokens().getLines().lineContent(line);
+    }
+
+    private TokenList tokens() {
+        checkGeneration(tokens.generation(), generation);
+        return tokens;
+    }
+
+    static void checkGeneration(int current, int made) {
+        if (current != made) {
+            throw new IllegalStateException("Token used after its pooled tokenizer moved on to another source");
+        }
     }
 }
@@ -0,0 +1,54 @@
+package edu.montana.csci.csci468.tokenizer;
+
+/**
+ * A token list that shares the tokens of another one but has its own position, for
+ * parsing part of a program on another thread.  Tokens from end on read as the final EOF
+ * token; whether the parser looked at any of them is remembered, since a parse that did
+ * may not be the parse the whole list would give.
+ */
+public class TokenCursor extends TokenList {
+
+    private final int end;
+    private boolean readPastEnd = false;
+    private volatile boolean abandoned = false;
+
+    TokenCursor(TokenList tokens, int start, int end) {
+        super(tokens);
+        this.end = end;
+        this.currentToken = start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    public boolean readPastEnd() {
+        return readPastEnd;
+    }
+
+    // from now on every token reads as EOF, so a parse still running on this cursor winds down
+    public void abandon() {
+        abandoned = true;
+    }
+
+    @Override
+    TokenType typeAt(int index) {
+        return super.typeAt(clamp(index));
+    }
+
+    @Override
+    Token get(int index) {
+        return super.get(clamp(index));
+    }
+
+    private int clamp(int index) {
+        if (index >= end) {
+            readPastEnd = true;
+            return produced - 1;
+        }
+        if (abandoned) {
+            return produced - 1;
+        }
+        return index;
+    }
+}
@@ -1,40 +1,285 @@
 package edu.montana.csci.csci468.tokenizer;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static edu.montana.csci.csci468.tokenizer.TokenType.EOF;
 import static edu.montana.csci.csci468.tokenizer.TokenType.IDENTIFIER;
 
+/**
+ * Tokens are stored column-wise in primitive arrays rather than as Token objects.
+ * A Token is only created as a view when someone asks for one, and its text is
+ * sliced out of the source only when getStringValue() is called.
+ */
 public class TokenList implements Iterable<Token> {
 
+    // the parser only ever looks at the current and the last token
+    static final int WINDOW_SIZE = 4;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final TokenType[] TYPES = TokenType.values();
+
     private final CatScriptTokenizer tokenizer;
-    List<Token> tokens = new ArrayList<>();
+    private final boolean streaming;
+    byte[] types;
+    int[] starts;
+    int[] ends;
+    int[] lines;
+    int[] lineOffsets;
+    // error tokens carry a message instead of source text, keyed by token index
+    Map<Integer, String> messages = new HashMap<>();
+    int produced = 0;
     int currentToken = 0;
 
+    private Token lastView;
+    private int lastViewIndex = -1;
+
     public TokenList(CatScriptTokenizer tokenizer) {
+        this(tokenizer, false);
+    }
+
+    TokenList(CatScriptTokenizer tokenizer, boolean streaming) {
         this.tokenizer = tokenizer;
+        this.streaming = streaming;
+        allocate(streaming ? WINDOW_SIZE : INITIAL_CAPACITY);
+    }
+
+    // shares the tokens of a fully tokenized list, see TokenCursor
+    TokenList(TokenList tokens) {
+        this.tokenizer = tokens.tokenizer;
+        this.streaming = false;
+        this.types = tokens.types;
+        this.starts = tokens.starts;
+        this.ends = tokens.ends;
+        this.lines = tokens.lines;
+        this.lineOffsets = tokens.lineOffsets;
+        this.messages = tokens.messages;
+        this.produced = tokens.produced;
+    }
+
+    private void allocate(int capacity) {
+        types = new byte[capacity];
+        starts = new int[capacity];
+        ends = new int[capacity];
+        lines = new int[capacity];
+        lineOffsets = new int[capacity];
+    }
+
+    // forgets every token for a reused tokenizer, keeping the arrays unless they grew past maxRetained
+    void clear(int maxRetained) {
+        if (types.length > maxRetained) {
+            allocate(INITIAL_CAPACITY);
+        }
+        if (!messages.isEmpty()) {
+            messages = new HashMap<>();
+        }
+        produced = 0;
+        currentToken = 0;
+        lastView = null;
+        lastViewIndex = -1;
+    }
+
+    private void grow() {
+        int capacity = types.length + (types.length >> 1);
+        types = Arrays.copyOf(types, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        lines = Arrays.copyOf(lines, capacity);
+        lineOffsets = Arrays.copyOf(lineOffsets, capacity);
+    }
+
+    void ensureCapacity(int capacity) {
+        if (types.length < capacity) {
+            types = Arrays.copyOf(types, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            lineOffsets = Arrays.copyOf(lineOffsets, capacity);
+        }
+    }
+
+    void addToken(TokenType type, int start, int end, int line, int lineOffset) {
+        int slot;
+        if (streaming) {
+            slot = produced % WINDOW_SIZE;
+            messages.remove(produced - WINDOW_SIZE);
+        } else {
+            if (produced == types.length) {
+                grow();
+            }
+            slot = produced;
+        }
+        types[slot] = (byte) type.ordinal();
+        starts[slot] = start;
+        ends[slot] = end;
+        lines[slot] = line;
+        lineOffsets[slot] = lineOffset;
+        produced++;
+    }
+
+    void addErrorToken(String message, int start, int end, int line, int lineOffset) {
+        messages.put(produced, message);
+        addToken(TokenType.ERROR, start, end, line, lineOffset);
+    }
+
+    // copies tokens [from, to) of another list onto the end of this one, moved by delta chars and lineDelta lines
+    void appendShifted(TokenList other, int from, int to, int delta, int lineDelta) {
+        int count = to - from;
+        if (types.length < produced + count) {
+            ensureCapacity(Math.max(produced + count, types.length + (types.length >> 1)));
+        }
+        System.arraycopy(other.types, from, types, produced, count);
+        System.arraycopy(other.starts, from, starts, produced, count);
+        System.arraycopy(other.ends, from, ends, produced, count);
+        System.arraycopy(other.lines, from, lines, produced, count);
+        System.arraycopy(other.lineOffsets, from, lineOffsets, produced, count);
+        if (delta != 0 || lineDelta != 0) {
+            for (int i = produced; i < produced + count; i++) {
+                starts[i] += delta;
+                ends[i] += delta;
+                lines[i] += lineDelta;
+            }
+        }
+        for (Map.Entry<Integer, String> message : other.messages.entrySet()) {
+            int index = message.getKey();
+            if (index >= from && index < to) {
+                messages.put(index - from + produced, message.getValue());
+            }
+        }
+        produced += count;
+    }
+
+    // the position just past the source text of a token, string literals end on their closing quote
+    int lexemeEnd(int index) {
+        return types[index] == TokenType.STRING.ordinal() ? ends[index] + 1 : ends[index];
+    }
+
+    // the last token whose text, and the character after it, lie before the given position
+    int lastTokenEndingBefore(int position) {
+        int low = -1;
+        int high = produced - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (lexemeEnd(mid) < position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Produces the token list for this source with an edit applied, re-lexing only the
+     * region around the edit and reusing the surrounding tokens.
+     */
+    public TokenList retokenize(int offset, int removedLength, String insertedText) {
+        return CatScriptTokenizer.applyEdit(tokenizer, offset, removedLength, insertedText).getTokens();
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public int size() {
+        if (streaming) {
+            throw new UnsupportedOperationException("The size of a streaming token list is not known up front");
+        }
+        return produced;
+    }
+
+    private int slot(int index) {
+        if (!streaming) {
+            if (index >= produced) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + produced);
+            }
+            return index;
+        }
+        while (produced <= index && tokenizer.scanNextToken()) {
+            // pull tokens until the requested one is in the window
+        }
+        if (index >= produced) {
+            throw new IndexOutOfBoundsException("Index " + index + " is past the end of the token stream");
+        }
+        if (index < produced - WINDOW_SIZE) {
+            throw new IllegalStateException("Token " + index + " is no longer in the lookahead window");
+        }
+        return index % WINDOW_SIZE;
+    }
+
+    TokenType typeAt(int index) {
+        return TYPES[types[slot(index)]];
+    }
+
+    Token get(int index) {
+        if (index != lastViewIndex) {
+            int slot = slot(index);
+            lastView = new Token(starts[slot], ends[slot], lines[slot], lineOffsets[slot],
+                    TYPES[types[slot]], index, this);
+            lastViewIndex = index;
+        }
+        return lastView;
     }
 
-    void addToken(TokenType eof, String stringValue, int start, int end, int line, int lineOffset) {
-        tokens.add(new Token(start, end, line, lineOffset - (end - start), stringValue, eof, tokenizer));
+    int generation() {
+        return tokenizer.generation;
+    }
+
+    String textOf(Token token) {
+        TokenType type = token.getType();
+        switch (type) {
+            case EOF:
+                return type.getText();
+            case ERROR:
+                return messages.get(token.index);
+            case IDENTIFIER:
+                return tokenizer.names.intern(tokenizer.src, token.getStart(), token.getEnd());
+            default:
+                return sourceText(type, tokenizer.src, token.getStart(), token.getEnd());
+        }
+    }
+
+    static String sourceText(TokenType type, CharSequence src, int start, int end) {
+        // NOT is also spelled "!", so only use the fixed text when the length agrees
+        String text = type.getText();
+        if (text != null && text.length() == end - start) {
+            return text;
+        }
+        return src.subSequence(start, end).toString();
+    }
+
+    public LineIndex getLines() {
+        return tokenizer.lines;
     }
 
     public Token getCurrentToken() {
-        return tokens.get(currentToken);
+        return get(currentToken);
     }
 
     public Token consumeToken() {
-        return tokens.get(currentToken++);
+        return get(currentToken++);
+    }
+
+    public boolean matchAndConsume(TokenType type) {
+        if (typeAt(currentToken) == type) {
+            currentToken++;
+            return true;
+        } else {
+            return false;
+        }
     }
 
     public boolean matchAndConsume(TokenType... type) {
         if (match(type)) {
-            consumeToken();
+            currentToken++;
             return true;
         } else {
             return false;
@@ -42,7 +287,7 @@ public class TokenList implements Iterable<Token> {
     }
 
     public boolean match(String identifier) {
-        if (getCurrentToken().getType().equals(IDENTIFIER) &&
+        if (typeAt(currentToken) == IDENTIFIER &&
             getCurrentToken().getStringValue().equals(identifier)) {
             return true;
         } else {
@@ -50,9 +295,28 @@ public class TokenList implements Iterable<Token> {
         }
     }
 
+    public boolean match(TokenType type) {
+        return typeAt(currentToken) == type;
+    }
+
+    public boolean match(Set<TokenType> types) {
+        return types.contains(typeAt(currentToken));
+    }
+
+    // the type of the token distance tokens past the current one
+    public TokenType lookahead(int distance) {
+        int index = currentToken + distance;
+        while (streaming && produced <= index && tokenizer.scanNextToken()) {
+            // pull tokens until the requested one is in the window
+        }
+        // everything past the end is EOF
+        return typeAt(Math.min(index, produced - 1));
+    }
+
     public boolean match(TokenType... type) {
+        TokenType current = typeAt(currentToken);
         for (TokenType tokenType : type) {
-            if (getCurrentToken().getType().equals(tokenType)) {
+            if (current == tokenType) {
                 return true;
             }
         }
@@ -61,40 +325,80 @@ public class TokenList implements Iterable<Token> {
 
     public void reset() {
         currentToken = 0;
+        if (streaming && produced > WINDOW_SIZE) {
+            // the first token has left the window, so start scanning over
+            tokenizer.rewind();
+            produced = 0;
+            messages.clear();
+            lastViewIndex = -1;
+        }
+    }
+
+    public int getPosition() {
+        return currentToken;
+    }
+
+    public void setPosition(int position) {
+        if (streaming) {
+            throw new UnsupportedOperationException("A streaming token list can only be reset");
+        }
+        currentToken = position;
+    }
+
+    /**
+     * A second cursor over this fully tokenized list, positioned at start, that sees EOF in
+     * place of every token from end on.  It only reads the tokens, so several cursors can
+     * be used from different threads.
+     */
+    public TokenCursor cursor(int start, int end) {
+        if (streaming) {
+            throw new UnsupportedOperationException("A streaming token list cannot be shared");
+        }
+        return new TokenCursor(this, start, end);
+    }
+
+    public TokenType getType(int index) {
+        return typeAt(index);
     }
 
     public boolean hasMoreTokens() {
-        return !getCurrentToken().getType().equals(EOF);
+        return typeAt(currentToken) != EOF;
     }
 
     public Token lastToken() {
-        return tokens.get(Math.max(0, currentToken - 1));
+        return get(Math.max(0, currentToken - 1));
     }
 
     public Stream<Token> stream() {
-        return tokens.stream();
+        return StreamSupport.stream(spliterator(), false);
     }
 
     @Override
     public Iterator<Token> iterator() {
-        return tokens.iterator();
+        if (streaming) {
+            return new TokenIterator(new CatScriptTokenizer(tokenizer.src, true).getTokens());
+        }
+        return new TokenIterator(this);
     }
 
     @Override
     public void forEach(Consumer action) {
-        tokens.forEach(action);
+        iterator().forEachRemaining(action);
     }
 
     @Override
     public Spliterator<Token> spliterator() {
-        return tokens.spliterator();
+        if (streaming) {
+            return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL);
+        }
+        return Spliterators.spliterator(iterator(), produced, Spliterator.ORDERED | Spliterator.NONNULL);
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
+        int i = 0;
+        for (Token token : this) {
             if (i == currentToken) {
                 sb.append("-->[");
             }
@@ -103,7 +407,37 @@ public class TokenList implements Iterable<Token> {
                 sb.append("]<--");
             }
             sb.append(" ");
+            i++;
         }
         return sb.toString();
     }
+
+    // iterates with its own cursor (or its own streaming copy) so the parser position is untouched
+    private static class TokenIterator implements Iterator<Token> {
+        private final TokenList tokens;
+        private int index = 0;
+        private boolean done = false;
+
+        TokenIterator(TokenList tokens) {
+            this.tokens = tokens;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !done;
+        }
+
+        @Override
+        public Token next() {
+            if (done) {
+                throw new NoSuchElementException();
+            }
+            int slot = tokens.slot(index);
+            Token token = new Token(tokens.starts[slot], tokens.ends[slot], tokens.lines[slot],
+                    tokens.lineOffsets[slot], TYPES[tokens.types[slot]], index, tokens);
+            index++;
+            done = token.getType() == EOF;
+            return token;
+        }
+    }
 }
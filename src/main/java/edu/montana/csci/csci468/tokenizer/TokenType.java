@@ -5,24 +5,24 @@ import java.util.Map;
 
 public enum TokenType {
     // syntax
-    LEFT_PAREN, RIGHT_PAREN,
-    LEFT_BRACE, RIGHT_BRACE,
-    LEFT_BRACKET, RIGHT_BRACKET,
-    COLON, COMMA, DOT, MINUS, PLUS, SLASH, STAR,
-    BANG_EQUAL,
-    EQUAL, EQUAL_EQUAL,
-    GREATER, GREATER_EQUAL,
-    LESS, LESS_EQUAL,
+    LEFT_PAREN("("), RIGHT_PAREN(")"),
+    LEFT_BRACE("{"), RIGHT_BRACE("}"),
+    LEFT_BRACKET("["), RIGHT_BRACKET("]"),
+    COLON(":"), COMMA(","), DOT("."), MINUS("-"), PLUS("+"), SLASH("/"), STAR("*"),
+    BANG_EQUAL("!="),
+    EQUAL("="), EQUAL_EQUAL("=="),
+    GREATER(">"), GREATER_EQUAL(">="),
+    LESS("<"), LESS_EQUAL("<="),
 
     // literals
-    IDENTIFIER, STRING, INTEGER,
+    IDENTIFIER(null), STRING(null), INTEGER(null),
 
     // keywords
-    ELSE, FALSE, FUNCTION, FOR, IF, IN, NOT, NULL,
-    PRINT, RETURN, TRUE, VAR,
+    ELSE("else"), FALSE("false"), FUNCTION("function"), FOR("for"), IF("if"), IN("in"), NOT("not"), NULL("null"),
+    PRINT("print"), RETURN("return"), TRUE("true"), VAR("var"),
 
-    ERROR,
-    EOF;
+    ERROR(null),
+    EOF("<EOF>");
 
     public static final Map<String, TokenType> KEYWORDS = new HashMap<>();
     static {
@@ -40,5 +40,15 @@ public enum TokenType {
         KEYWORDS.put("var", VAR);
     }
 
+    // the text of every token of this type, or null when it comes from the source
+    private final String text;
+
+    TokenType(String text) {
+        this.text = text;
+    }
+
+    public String getText() {
+        return text;
+    }
 
 }
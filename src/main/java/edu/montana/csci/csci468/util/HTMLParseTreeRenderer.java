@@ -1,25 +1,29 @@
 package edu.montana.csci.csci468.util;
 
 import edu.montana.csci.csci468.parser.ParseElement;
+import edu.montana.csci.csci468.parser.ParseTreeVisitor;
 
 public class HTMLParseTreeRenderer  {
 
     public static String render(ParseElement root) {
         StringBuilder buffer = new StringBuilder("<ul>");
-        renderElement(buffer, root);
-        buffer.append("</ul>");
-        return buffer.toString();
-    }
+        root.walk(new ParseTreeVisitor() {
+            @Override
+            public boolean enter(ParseElement element) {
+                buffer.append("<li>");
+                buffer.append(element.toString());
+                buffer.append("<ul>");
+                return true;
+            }
 
-    private static void renderElement(StringBuilder buffer, ParseElement root) {
-        buffer.append("<li>");
-        buffer.append(root.toString());
-        buffer.append("<ul>");
-        for (ParseElement child : root.getChildren()) {
-            renderElement(buffer, child);
-        }
+            @Override
+            public void leave(ParseElement element) {
+                buffer.append("</ul>");
+                buffer.append("<l/i>");
+            }
+        });
         buffer.append("</ul>");
-        buffer.append("<l/i>");
+        return buffer.toString();
     }
 
 }
@@ -0,0 +1,70 @@
+package edu.montana.csci.csci468.bench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.function.Supplier;
+
+// Small helpers shared by the main() benchmarks in this package, run them by hand
+public class BenchmarkSupport {
+
+    public static String generateStatements(int approximateBytes) {
+        StringBuilder sb = new StringBuilder(approximateBytes + 128);
+        int i = 0;
+        while (sb.length() < approximateBytes) {
+            sb.append("var x").append(i).append(" = 1 + 2 * (3 - y").append(i).append(")\n");
+            sb.append("// a comment about x").append(i).append("\n");
+            sb.append("print(\"value \" + x").append(i).append(")\n");
+            i++;
+        }
+        return sb.toString();
+    }
+
+    public static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    public static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    // bytes allocated so far by the calling thread
+    public static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    public static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    public static <T> T warmUp(int iterations, Supplier<T> work) {
+        T result = null;
+        for (int i = 0; i < iterations; i++) {
+            result = work.get();
+        }
+        return result;
+    }
+
+    public static String mb(long bytes) {
+        return String.format("%.1fMB", bytes / (1024.0 * 1024.0));
+    }
+}
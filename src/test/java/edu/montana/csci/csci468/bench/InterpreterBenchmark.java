@@ -0,0 +1,177 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static edu.montana.csci.csci468.bench.BenchmarkSupport.*;
+
+// run with: java -cp target/classes:target/test-classes edu.montana.csci.csci468.bench.InterpreterBenchmark [names...]
+public class InterpreterBenchmark {
+
+    public static void main(String[] args) {
+        List<String> selected = Arrays.asList(args);
+        if (selected.isEmpty() || selected.contains("variables")) {
+            variables();
+        }
+        if (selected.isEmpty() || selected.contains("loops")) {
+            loops();
+        }
+        if (selected.isEmpty() || selected.contains("recursion")) {
+            recursion();
+        }
+        if (selected.isEmpty() || selected.contains("fib")) {
+            fib();
+        }
+        if (selected.isEmpty() || selected.contains("ackermann")) {
+            ackermann();
+        }
+        if (selected.isEmpty() || selected.contains("lists")) {
+            lists();
+        }
+        if (selected.isEmpty() || selected.contains("arithmetic")) {
+            arithmetic();
+        }
+        if (selected.isEmpty() || selected.contains("strings")) {
+            strings();
+        }
+    }
+
+    // parameters have names of their own and are only read before the recursive call, so the
+    // old runtime, which kept every variable in one global map, did the same work
+
+    // locals and globals read in a function that calls itself 500 deep
+    static void variables() {
+        run("variables", "var g1 = 1\n" +
+                "var g2 = 2\n" +
+                "var g3 = 3\n" +
+                "function down(n : int, a : int, b : int) {\n" +
+                "  var c = a + b * g1 - g2\n" +
+                "  var d = c + a - b + g3\n" +
+                "  var e = d * g1 + c - a\n" +
+                "  if (n > 0) { down(n - 1, e - d + c, b + g1 - g1) }\n" +
+                "}\n" +
+                "function repeat(r : int) {\n" +
+                "  down(500, 1, 2)\n" +
+                "  if (r > 0) { repeat(r - 1) }\n" +
+                "}\n" +
+                "repeat(400)\n" +
+                "print(g1)");
+    }
+
+    static void loops() {
+        run("loops", "var g1 = 1\n" +
+                "var g2 = 2\n" +
+                "function loop(m : int) {\n" +
+                "  for (x in [1, 2, 3, 4, 5, 6, 7, 8]) {\n" +
+                "    var y = x\n" +
+                "    var a = m + g1 * g2 - g1\n" +
+                "    var b = a + m - g2 + a\n" +
+                "  }\n" +
+                "  if (m > 0) { loop(m - 1) }\n" +
+                "}\n" +
+                "function repeat(r : int) {\n" +
+                "  loop(200)\n" +
+                "  if (r > 0) { repeat(r - 1) }\n" +
+                "}\n" +
+                "repeat(200)\n" +
+                "print(g1)");
+    }
+
+    // 500k calls that only pass their argument on
+    static void recursion() {
+        run("recursion", "function count(k : int) {\n" +
+                "  if (k > 0) { count(k - 1) }\n" +
+                "}\n" +
+                "function repeat(r : int) {\n" +
+                "  count(500)\n" +
+                "  if (r > 0) { repeat(r - 1) }\n" +
+                "}\n" +
+                "repeat(1000)\n" +
+                "print(1)");
+    }
+
+    static void fib() {
+        run("fib", "function fib(n : int) : int {\n" +
+                "  if (n < 2) { return n }\n" +
+                "  return fib(n - 1) + fib(n - 2)\n" +
+                "}\n" +
+                "print(fib(22))");
+    }
+
+    static void ackermann() {
+        run("ackermann", "function ack(m : int, n : int) : int {\n" +
+                "  if (m < 1) { return n + 1 }\n" +
+                "  if (n < 1) { return ack(m - 1, 1) }\n" +
+                "  return ack(m - 1, ack(m, n - 1))\n" +
+                "}\n" +
+                "print(ack(2, 300))");
+    }
+
+    // builds nested pairs, [1, [2, [3, ...]]], 300 deep
+    static void lists() {
+        run("lists", "function build(n : int, acc : list) : list {\n" +
+                "  if (n < 1) { return acc }\n" +
+                "  var pair = [n, acc]\n" +
+                "  return build(n - 1, pair)\n" +
+                "}\n" +
+                "function repeat(r : int) {\n" +
+                "  var built = build(300, [])\n" +
+                "  if (r > 0) { repeat(r - 1) }\n" +
+                "}\n" +
+                "repeat(1000)\n" +
+                "print(1)");
+    }
+
+    // mostly int arithmetic on values outside the small boxed Integer cache
+    static void arithmetic() {
+        run("arithmetic", "function mix(n : int, acc : int) : int {\n" +
+                "  if (n < 1) { return acc }\n" +
+                "  var a = (acc * 31 + n * n - (n / 3) * 7) / 5 - -n\n" +
+                "  var b = a * 3 - acc / 7 + (n - 1000) * (n + 1000) / 1000\n" +
+                "  if (a * 2 + b > b * 3 - a + 100000) { return mix(n - 1, (a - b) / 11 + 1000) }\n" +
+                "  return mix(n - 1, (a + b) / 13 - n * 2 + 1000)\n" +
+                "}\n" +
+                "function repeat(r : int) {\n" +
+                "  var result = mix(500, r * 1000)\n" +
+                "  if (r > 0) { repeat(r - 1) }\n" +
+                "}\n" +
+                "repeat(400)\n" +
+                "print(1)");
+    }
+
+    static void strings() {
+        run("strings", "function label(n : int, prefix : string) : string {\n" +
+                "  if (n < 1) { return prefix }\n" +
+                "  var line = prefix + \"-\" + n + \":\" + (n * 2 + 1)\n" +
+                "  return label(n - 1, \"x\" + (n + 1000))\n" +
+                "}\n" +
+                "function repeat(r : int) {\n" +
+                "  var built = label(500, \"start\")\n" +
+                "  if (r > 0) { repeat(r - 1) }\n" +
+                "}\n" +
+                "repeat(200)\n" +
+                "print(1)");
+    }
+
+    private static void run(String name, String src) {
+        CatScriptProgram program = new CatScriptParser().parse(src);
+        program.verify();
+        warmUp(10, () -> {
+            program.execute();
+            return program;
+        });
+        long elapsed = Long.MAX_VALUE;
+        long allocated = Long.MAX_VALUE;
+        for (int run = 0; run < 15; run++) {
+            long before = allocatedBytes();
+            long start = System.nanoTime();
+            program.execute();
+            elapsed = Math.min(elapsed, System.nanoTime() - start);
+            allocated = Math.min(allocated, allocatedBytes() - before);
+        }
+        System.out.printf("%-10s execute best=%8.2fms allocated=%s%n", name, millis(elapsed), mb(allocated));
+    }
+}
@@ -0,0 +1,507 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.parser.CatAstFormat;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.ParseElement;
+import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ParseBudgetExceededException;
+import edu.montana.csci.csci468.parser.ParseErrorException;
+import edu.montana.csci.csci468.parser.ParseTreeVisitor;
+import edu.montana.csci.csci468.parser.expressions.Expression;
+import edu.montana.csci.csci468.parser.expressions.IntegerLiteralExpression;
+import edu.montana.csci.csci468.parser.expressions.ParenthesizedExpression;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
+import edu.montana.csci.csci468.tokenizer.TokenList;
+import edu.montana.csci.csci468.util.HTMLParseTreeRenderer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static edu.montana.csci.csci468.bench.BenchmarkSupport.*;
+
+// run with: java -cp target/classes:target/test-classes edu.montana.csci.csci468.bench.ParserBenchmark [names...]
+public class ParserBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        List<String> selected = Arrays.asList(args);
+        if (selected.isEmpty() || selected.contains("errors")) {
+            errors();
+            errorList();
+        }
+        if (selected.isEmpty() || selected.contains("statements")) {
+            statements();
+        }
+        if (selected.isEmpty() || selected.contains("expressions")) {
+            expressions();
+        }
+        if (selected.isEmpty() || selected.contains("footprint")) {
+            footprint();
+        }
+        if (selected.isEmpty() || selected.contains("requests")) {
+            requests();
+        }
+        if (selected.isEmpty() || selected.contains("verify")) {
+            verify();
+        }
+        if (selected.isEmpty() || selected.contains("functions")) {
+            functions();
+        }
+        if (selected.isEmpty() || selected.contains("catast")) {
+            catast();
+        }
+        if (selected.isEmpty() || selected.contains("walks")) {
+            walks();
+        }
+        if (selected.isEmpty() || selected.contains("scopes")) {
+            scopes();
+        }
+        if (selected.isEmpty() || selected.contains("types")) {
+            types();
+        }
+    }
+
+    static void statements() {
+        System.out.println("== parsing a pre-tokenized 4MB statement program ==");
+        TokenList tokens = new CatScriptTokenizer(generateStatements(4 << 20)).getTokens();
+        warmUp(5, () -> {
+            tokens.reset();
+            return new CatScriptParser().parse(tokens);
+        });
+        // best of the runs, the machine is noisy
+        long elapsed = Long.MAX_VALUE;
+        long allocated = Long.MAX_VALUE;
+        for (int run = 0; run < 10; run++) {
+            tokens.reset();
+            long before = allocatedBytes();
+            long start = System.nanoTime();
+            new CatScriptParser().parse(tokens);
+            elapsed = Math.min(elapsed, System.nanoTime() - start);
+            allocated = Math.min(allocated, allocatedBytes() - before);
+        }
+        System.out.printf("parse best=%8.2fms allocated=%s%n", millis(elapsed), mb(allocated));
+    }
+
+    static void expressions() {
+        System.out.println("== long and deeply nested expressions, the deepest past the depth limit ==");
+        int levels = CatScriptParser.MAX_DEPTH - 10;
+        for (int terms : new int[]{levels, 100_000, 1_000_000}) {
+            StringBuilder sb = new StringBuilder("1");
+            for (int i = 0; i < terms; i++) {
+                sb.append(i % 2 == 0 ? " + " : " * ").append(i);
+            }
+            time("terms=" + terms, sb.toString());
+        }
+        for (int depth : new int[]{levels, 10_000, 100_000}) {
+            time("depth=" + depth, "(".repeat(depth) + "1" + ")".repeat(depth));
+        }
+    }
+
+    private static void time(String name, String src) {
+        TokenList tokens = new CatScriptTokenizer(src).getTokens();
+        warmUp(5, () -> {
+            tokens.reset();
+            return parseOrRefuse(tokens);
+        });
+        long elapsed = Long.MAX_VALUE;
+        Object result = null;
+        for (int run = 0; run < 5; run++) {
+            tokens.reset();
+            long start = System.nanoTime();
+            result = parseOrRefuse(tokens);
+            elapsed = Math.min(elapsed, System.nanoTime() - start);
+        }
+        System.out.printf("%-15s parse best=%8.2fms%s%n", name, millis(elapsed),
+                result instanceof ParseBudgetExceededException ? " (refused)" : "");
+    }
+
+    private static Object parseOrRefuse(TokenList tokens) {
+        try {
+            return new CatScriptParser().parse(tokens);
+        } catch (ParseBudgetExceededException e) {
+            return e;
+        }
+    }
+
+    static void footprint() {
+        System.out.println("== retained heap of the AST of a 4MB program ==");
+        StringBuilder sb = new StringBuilder(generateStatements(2 << 20));
+        for (int i = 0; sb.length() < (4 << 20); i++) {
+            sb.append("function f").append(i).append("(a : int, b) : int {\n")
+                    .append("  if (a > b) { print([a, b, 3]) } else { print(a) }\n")
+                    .append("  return a - b * ").append(i).append("\n}\n");
+        }
+        String src = sb.toString();
+        long before = usedHeapAfterGc();
+        TokenList tokens = new CatScriptTokenizer(src).getTokens();
+        long tokensOnly = usedHeapAfterGc() - before;
+        CatScriptProgram program = new CatScriptParser().parse(tokens);
+        long retained = usedHeapAfterGc() - before - tokensOnly;
+        int nodes = countNodes(program);
+        System.out.printf("nodes=%d AST=%s bytes/node=%.1f plus tokens=%s%n", nodes, mb(retained),
+                (double) retained / nodes, mb(tokensOnly));
+        long start = System.nanoTime();
+        program.detachFromTokens();
+        long elapsed = System.nanoTime() - start;
+        tokens = null;
+        long detached = usedHeapAfterGc() - before;
+        System.out.printf("detached in %.2fms, AST alone=%s bytes/node=%.1f%n", millis(elapsed), mb(detached),
+                (double) detached / nodes);
+        if (program.getStatements().isEmpty() || tokens != null) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static int countNodes(ParseElement root) {
+        int count = 0;
+        ArrayDeque<ParseElement> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            ParseElement element = pending.pop();
+            count++;
+            for (ParseElement child : element.getChildren()) {
+                pending.push(child);
+            }
+        }
+        return count;
+    }
+
+    // simulates the server's /parse handler under load, like spark's worker threads would run it
+    static void requests() throws Exception {
+        System.out.println("== 4 threads x 20k parse requests of a 2KB script ==");
+        String src = generateStatements(2 << 10);
+        load("fresh", src, source -> new CatScriptParser().parse(source));
+        load("pooled", src, source -> new CatScriptParser().parse(CatScriptTokenizer.pooled(source).getTokens()));
+    }
+
+    private static void load(String name, String src, Function<String, CatScriptProgram> handler) throws Exception {
+        int threads = 4;
+        int requests = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        AtomicLong allocated = new AtomicLong();
+        for (int round = 0; round < 2; round++) {
+            // the first round warms up
+            allocated.set(0);
+            long start = System.nanoTime();
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> {
+                    long before = allocatedBytes();
+                    for (int i = 0; i < requests; i++) {
+                        handler.apply(src);
+                    }
+                    allocated.addAndGet(allocatedBytes() - before);
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            if (round == 1) {
+                System.out.printf("%-7s %8.0f requests/s allocated=%6.1fKB/request%n", name,
+                        threads * requests / (elapsed / 1e9), allocated.get() / 1024.0 / (threads * requests));
+            }
+        }
+        pool.shutdown();
+    }
+
+    static void verify() {
+        System.out.println("== verifying 500 functions, " + ForkJoinPool.commonPool().getParallelism() + " pool threads ==");
+        String src = generateFunctions(500);
+        verifyTime("sequential", src, CatScriptProgram::verify);
+        verifyTime("pool", src, program -> program.verify(ForkJoinPool.commonPool()));
+    }
+
+    static void functions() {
+        System.out.println("== parsing 500 functions, " + ForkJoinPool.commonPool().getParallelism() + " pool threads ==");
+        TokenList tokens = new CatScriptTokenizer(generateFunctions(500)).getTokens();
+        parseTime("sequential", tokens, () -> new CatScriptParser().parse(tokens));
+        parseTime("pool", tokens, () -> new CatScriptParser().parse(tokens, ForkJoinPool.commonPool()));
+    }
+
+    private static void parseTime(String name, TokenList tokens, Supplier<CatScriptProgram> parse) {
+        long elapsed = Long.MAX_VALUE;
+        for (int run = 0; run < 15; run++) {
+            tokens.reset();
+            long start = System.nanoTime();
+            parse.get();
+            elapsed = Math.min(elapsed, System.nanoTime() - start);
+        }
+        System.out.printf("%-10s parse best=%8.2fms%n", name, millis(elapsed));
+    }
+
+    // the first run of each is the cold start a service pays on boot
+    static void catast() throws IOException {
+        String src = generateFunctions(125);
+        System.out.println("== loading a " + src.split("\n").length + " line program ==");
+        Path file = Files.createTempFile("bench", ".catast");
+        try {
+            CatScriptProgram parsed = new CatScriptParser().parse(src);
+            parsed.verify();
+            try (OutputStream out = Files.newOutputStream(file)) {
+                CatAstFormat.write(parsed, src, out);
+            }
+            System.out.printf(".catast size=%s source size=%s%n", mb(Files.size(file)), mb(src.length()));
+            long parseCold = 0;
+            long loadCold = 0;
+            long parseBest = Long.MAX_VALUE;
+            long loadBest = Long.MAX_VALUE;
+            for (int run = 0; run < 10; run++) {
+                long start = System.nanoTime();
+                new CatScriptParser().parse(src).verify();
+                long parse = System.nanoTime() - start;
+                start = System.nanoTime();
+                try (InputStream in = Files.newInputStream(file)) {
+                    CatAstFormat.read(in, src);
+                }
+                long load = System.nanoTime() - start;
+                if (run == 0) {
+                    parseCold = parse;
+                    loadCold = load;
+                }
+                parseBest = Math.min(parseBest, parse);
+                loadBest = Math.min(loadBest, load);
+            }
+            System.out.printf("tokenize+parse+verify cold=%8.2fms best=%8.2fms%n", millis(parseCold), millis(parseBest));
+            System.out.printf(".catast load          cold=%8.2fms best=%8.2fms%n", millis(loadCold), millis(loadBest));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static String generateFunctions(int count) {
+        StringBuilder sb = new StringBuilder("var limit = 10\n");
+        for (int i = 0; i < count; i++) {
+            sb.append("function f").append(i).append("(a : int, b : int) : int {\n");
+            for (int j = 0; j < 200; j++) {
+                sb.append("  var v").append(j).append(" = a * ").append(j).append(" + b - limit\n")
+                        .append("  if (v").append(j).append(" > a) { print(v").append(j).append(" + 1) }")
+                        .append(" else { for (x in [a, b, ").append(j).append("]) { print(x * v").append(j).append(") } }\n");
+            }
+            sb.append("  return a\n}\n");
+        }
+        return sb.toString();
+    }
+
+    private static void verifyTime(String name, String src, Consumer<CatScriptProgram> verifier) {
+        TokenList tokens = new CatScriptTokenizer(src).getTokens();
+        long elapsed = Long.MAX_VALUE;
+        for (int run = 0; run < 15; run++) {
+            tokens.reset();
+            CatScriptProgram program = new CatScriptParser().parse(tokens);
+            long start = System.nanoTime();
+            verifier.accept(program);
+            elapsed = Math.min(elapsed, System.nanoTime() - start);
+        }
+        System.out.printf("%-10s verify best=%8.2fms%n", name, millis(elapsed));
+    }
+
+    static void scopes() {
+        for (int depth : new int[]{10, 50, 200}) {
+            String src = generateNested(depth, 20000 / depth);
+            System.out.println("== verifying blocks nested " + depth + " deep, " + src.split("\n").length + " lines ==");
+            verifyTime("nested", src, CatScriptProgram::verify);
+        }
+    }
+
+    // each level declares a variable and reads its own, the enclosing level's and a global
+    private static String generateNested(int depth, int repeat) {
+        StringBuilder sb = new StringBuilder("var g = 1\n");
+        for (int r = 0; r < repeat; r++) {
+            sb.append("var r").append(r).append(" = g\n");
+            String outer = "r" + r;
+            for (int i = 0; i < depth; i++) {
+                String name = "v" + i;
+                sb.append("if (g > ").append(i).append(") {\n")
+                        .append("var ").append(name).append(" = ").append(outer).append(" + g\n")
+                        .append("print(").append(name).append(" * ").append(outer).append(" - ").append(name).append(")\n");
+                outer = name;
+            }
+            for (int i = 0; i < depth; i++) {
+                sb.append("}\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    static void types() {
+        for (int terms : new int[]{10, 100, 400}) {
+            String src = generateTypes(terms, 200000 / terms);
+            System.out.println("== verifying sums of " + terms + " terms and nested lists, " + src.split("\n").length + " lines ==");
+            verifyTime("types", src, CatScriptProgram::verify);
+        }
+    }
+
+    private static String generateTypes(int terms, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append("var s").append(i).append(" = \"s\"");
+            for (int j = 0; j < terms; j++) {
+                sb.append(j % 2 == 0 ? " + " : " - ").append(j);
+            }
+            sb.append("\nvar l").append(i).append(" : list<list<int>> = [[").append(i).append(", 1], [2]]\n");
+        }
+        return sb.toString();
+    }
+
+    // the recursive passes these replaced are kept here to compare against
+    static void walks() {
+        System.out.println("== passes over a 200k line program, half of the lines with an error ==");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            sb.append("print(missing").append(i).append(")\n");
+            sb.append("print(").append(i).append(" + 1)\n");
+        }
+        CatScriptProgram program = new CatScriptParser().parse(sb.toString());
+        try {
+            program.verify();
+        } catch (ParseErrorException e) {
+            System.out.println(e.getErrors().size() + " errors");
+        }
+        passTime("recursive errors", () -> recursiveErrors(new LinkedList<>(), program).size());
+        passTime("walk errors", () -> walkErrors(program).size());
+        passTime("recursive count", () -> recursiveCount(program));
+        passTime("walk count", () -> walkCount(program));
+        passTime("render", () -> HTMLParseTreeRenderer.render(program).length());
+
+        int depth = 100_000;
+        System.out.println("== passes over an expression " + depth + " parentheses deep ==");
+        // far past what the parser allows, so built directly
+        Expression expression = new IntegerLiteralExpression("1");
+        for (int i = 0; i < depth; i++) {
+            expression = new ParenthesizedExpression(expression);
+        }
+        CatScriptProgram deep = new CatScriptProgram();
+        deep.setExpression(expression);
+        try {
+            System.out.println("recursive count " + recursiveCount(deep));
+        } catch (StackOverflowError e) {
+            System.out.println("recursive count overflowed the stack");
+        }
+        passTime("walk count", () -> walkCount(deep));
+        passTime("render", () -> HTMLParseTreeRenderer.render(deep).length());
+    }
+
+    private static void passTime(String name, Supplier<Integer> pass) {
+        long elapsed = Long.MAX_VALUE;
+        int result = 0;
+        for (int run = 0; run < 15; run++) {
+            long start = System.nanoTime();
+            result = pass.get();
+            elapsed = Math.min(elapsed, System.nanoTime() - start);
+        }
+        System.out.printf("%-18s best=%8.2fms (%d)%n", name, millis(elapsed), result);
+    }
+
+    private static LinkedList<ParseError> recursiveErrors(LinkedList<ParseError> collector, ParseElement element) {
+        collector.addAll(element.getErrors());
+        for (ParseElement child : element.getChildren()) {
+            recursiveErrors(collector, child);
+        }
+        return collector;
+    }
+
+    private static List<ParseError> walkErrors(ParseElement root) {
+        List<ParseElement> withErrors = new ArrayList<>();
+        int[] count = new int[1];
+        root.walk(new ParseTreeVisitor() {
+            @Override
+            public boolean enter(ParseElement element) {
+                if (element.hasErrors()) {
+                    withErrors.add(element);
+                    count[0] += element.getErrors().size();
+                }
+                return true;
+            }
+        });
+        List<ParseError> errors = new ArrayList<>(count[0]);
+        for (ParseElement element : withErrors) {
+            errors.addAll(element.getErrors());
+        }
+        return errors;
+    }
+
+    private static int recursiveCount(ParseElement element) {
+        int count = 1;
+        for (ParseElement child : element.getChildren()) {
+            count += recursiveCount(child);
+        }
+        return count;
+    }
+
+    private static int walkCount(ParseElement root) {
+        int[] count = new int[1];
+        root.walk(new ParseTreeVisitor() {
+            @Override
+            public boolean enter(ParseElement element) {
+                count[0]++;
+                return true;
+            }
+        });
+        return count[0];
+    }
+
+    static void errors() {
+        System.out.println("== error reporting, 10k lines ==");
+        for (int errorCount : new int[]{100, 500, 1000}) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 10_000; i++) {
+                if (i % (10_000 / errorCount) == 0) {
+                    sb.append("print(missing").append(i).append(")\n");
+                } else {
+                    sb.append("print(").append(i).append(" + 1)\n");
+                }
+            }
+            String src = sb.toString();
+            warmUp(10, () -> report(src));
+            long start = System.nanoTime();
+            String message = report(src);
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("errors=%-5d parse+verify+render=%8.2fms message length=%d%n",
+                    errorCount, millis(elapsed), message.length());
+        }
+    }
+
+    static void errorList() {
+        System.out.println("== 100k errors, structured errors only ==");
+        String src = "print(missing)\n".repeat(100_000);
+        long elapsed = Long.MAX_VALUE;
+        int errors = 0;
+        for (int run = 0; run < 10; run++) {
+            long start = System.nanoTime();
+            try {
+                new CatScriptParser().parse(src).verify();
+            } catch (ParseErrorException e) {
+                errors = e.getErrors().size();
+            }
+            elapsed = Math.min(elapsed, System.nanoTime() - start);
+        }
+        System.out.printf("parse+verify best=%8.2fms errors listed=%d%n", millis(elapsed), errors);
+    }
+
+    private static String report(String src) {
+        CatScriptProgram program = new CatScriptParser().parse(src);
+        try {
+            program.verify();
+            return "";
+        } catch (ParseErrorException e) {
+            return e.getMessage();
+        }
+    }
+}
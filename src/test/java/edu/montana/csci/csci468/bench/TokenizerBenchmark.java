@@ -0,0 +1,205 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
+import edu.montana.csci.csci468.tokenizer.TokenList;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static edu.montana.csci.csci468.bench.BenchmarkSupport.*;
+
+// run with: java -cp target/classes:target/test-classes edu.montana.csci.csci468.bench.TokenizerBenchmark [names...]
+public class TokenizerBenchmark {
+
+    public static void main(String[] args) {
+        List<String> selected = Arrays.asList(args);
+        if (selected.isEmpty() || selected.contains("streaming")) {
+            streaming();
+        }
+        if (selected.isEmpty() || selected.contains("footprint")) {
+            footprint();
+        }
+        if (selected.isEmpty() || selected.contains("identifiers")) {
+            identifiers();
+        }
+        if (selected.isEmpty() || selected.contains("comments")) {
+            comments();
+        }
+        if (selected.isEmpty() || selected.contains("punctuation")) {
+            punctuation();
+        }
+        if (selected.isEmpty() || selected.contains("parallel")) {
+            parallel();
+        }
+        if (selected.isEmpty() || selected.contains("incremental")) {
+            incremental();
+        }
+    }
+
+    static void comments() {
+        System.out.println("== comment and string heavy input, 8MB ==");
+        StringBuilder comments = new StringBuilder();
+        StringBuilder strings = new StringBuilder();
+        int i = 0;
+        while (comments.length() < (8 << 20)) {
+            comments.append("        // a fairly long explanatory comment about line ").append(i).append(" of the input\n")
+                    .append("        print(x").append(i).append(")\n");
+            strings.append("print(\"a fairly long string literal with an \\\"escape\\\" for line ").append(i)
+                    .append(" of the input\", \"and another\")\n");
+            i++;
+        }
+        bestOf("comments", comments.toString());
+        bestOf("strings", strings.toString());
+    }
+
+    private static void bestOf(String name, String src) {
+        warmUp(10, () -> new CatScriptTokenizer(src).getTokens());
+        // best of the runs, the other benchmarks here are noisy on a shared machine
+        long elapsed = Long.MAX_VALUE;
+        for (int run = 0; run < 10; run++) {
+            long start = System.nanoTime();
+            new CatScriptTokenizer(src).getTokens();
+            elapsed = Math.min(elapsed, System.nanoTime() - start);
+        }
+        System.out.printf("%-9s best=%8.2fms throughput=%.1fMB/s%n", name, millis(elapsed),
+                src.length() / (1024.0 * 1024.0) / (elapsed / 1e9));
+    }
+
+    static void punctuation() {
+        System.out.println("== punctuation dense input, 8MB ==");
+        String line = "f(a[1],{b:2}) == (c <= d) != [e >= g] + h - i * j / k < l > m.n = !o // p\n";
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < (8 << 20)) {
+            sb.append(line);
+        }
+        String src = sb.toString();
+        warmUp(10, () -> new CatScriptTokenizer(src).getTokens());
+        // best of the runs, the other benchmarks here are noisy on a shared machine
+        long elapsed = Long.MAX_VALUE;
+        int tokens = 0;
+        for (int run = 0; run < 10; run++) {
+            long start = System.nanoTime();
+            tokens = new CatScriptTokenizer(src).getTokens().size();
+            elapsed = Math.min(elapsed, System.nanoTime() - start);
+        }
+        System.out.printf("tokens=%d best=%8.2fms throughput=%.1fMB/s%n", tokens, millis(elapsed),
+                src.length() / (1024.0 * 1024.0) / (elapsed / 1e9));
+    }
+
+    static void parallel() {
+        System.out.println("== sequential vs fork-join tokenization, 32MB ==");
+        String src = generateStatements(32 << 20);
+        warmUp(5, () -> new CatScriptTokenizer(src).getTokens());
+        int runs = 5;
+        long start = System.nanoTime();
+        for (int run = 0; run < runs; run++) {
+            new CatScriptTokenizer(src).getTokens();
+        }
+        System.out.printf("sequential        %8.2fms%n", millis((System.nanoTime() - start) / runs));
+        for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors(); threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            warmUp(5, () -> CatScriptTokenizer.parallel(src, pool).getTokens());
+            start = System.nanoTime();
+            for (int run = 0; run < runs; run++) {
+                CatScriptTokenizer.parallel(src, pool).getTokens();
+            }
+            System.out.printf("parallel threads=%-2d%8.2fms%n", threads, millis((System.nanoTime() - start) / runs));
+            pool.shutdown();
+        }
+    }
+
+    static void incremental() {
+        System.out.println("== full vs incremental re-tokenization of a one character edit ==");
+        for (int size : new int[]{64 << 10, 1 << 20, 8 << 20}) {
+            String src = generateStatements(size);
+            TokenList tokens = new CatScriptTokenizer(src).getTokens();
+            int offset = src.indexOf("1 + 2", src.length() / 2);
+            warmUp(20, () -> new CatScriptTokenizer(src.substring(0, offset) + "7" + src.substring(offset + 1)).getTokens());
+            warmUp(20, () -> tokens.retokenize(offset, 1, "7"));
+            int runs = 10;
+            long start = System.nanoTime();
+            for (int run = 0; run < runs; run++) {
+                new CatScriptTokenizer(src.substring(0, offset) + "7" + src.substring(offset + 1)).getTokens();
+            }
+            long full = (System.nanoTime() - start) / runs;
+            start = System.nanoTime();
+            for (int run = 0; run < runs; run++) {
+                tokens.retokenize(offset, 1, "7");
+            }
+            long incremental = (System.nanoTime() - start) / runs;
+            System.out.printf("src=%-7s full=%8.2fms incremental=%8.2fms%n", mb(src.length()), millis(full), millis(incremental));
+        }
+    }
+
+    static void identifiers() {
+        System.out.println("== identifier heavy input ==");
+        StringBuilder sb = new StringBuilder();
+        String[] words = {"alpha", "beta", "gamma", "delta", "for", "in", "if", "else", "return", "function",
+                "print", "var", "not", "true", "false", "null", "counter", "index", "total", "value"};
+        int i = 0;
+        while (sb.length() < (8 << 20)) {
+            sb.append(words[i % words.length]).append(i % 97).append(' ')
+                    .append(words[(i * 7) % words.length]).append(i % 3 == 0 ? '\n' : ' ');
+            i++;
+        }
+        String src = sb.toString();
+        warmUp(10, () -> new CatScriptTokenizer(src).getTokens());
+        int runs = 10;
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        for (int run = 0; run < runs; run++) {
+            new CatScriptTokenizer(src).getTokens();
+        }
+        long elapsed = (System.nanoTime() - start) / runs;
+        allocated = (allocatedBytes() - allocated) / runs;
+        System.out.printf("src=%s tokenize=%.2fms (%.1f MB/s) allocated=%s%n", mb(src.length()), millis(elapsed),
+                src.length() / (1024.0 * 1024.0) / (elapsed / 1e9), mb(allocated));
+    }
+
+    static void footprint() {
+        System.out.println("== retained bytes per token ==");
+        String src = generateStatements(8 << 20);
+        long baseline = usedHeapAfterGc();
+        TokenList tokens = new CatScriptTokenizer(src).getTokens();
+        long retained = usedHeapAfterGc() - baseline;
+        long count = tokens.stream().count();
+        System.out.printf("tokens=%d retained=%s bytes/token=%.1f%n", count, mb(retained), retained / (double) count);
+    }
+
+    static void streaming() {
+        System.out.println("== eager vs streaming tokenization ==");
+        for (int size : new int[]{1 << 20, 8 << 20, 32 << 20}) {
+            String src = generateStatements(size);
+            warmUp(3, () -> new CatScriptTokenizer(src).getTokens());
+            warmUp(3, () -> drain(new CatScriptTokenizer(src, true).getTokens()));
+            for (boolean streaming : new boolean[]{false, true}) {
+                long baseline = usedHeapAfterGc();
+                resetPeakHeap();
+                long start = System.nanoTime();
+                TokenList tokens = new CatScriptTokenizer(src, streaming).getTokens();
+                // the first statement is "var x0 = 1 + 2 * (3 - y0)", ten tokens long
+                for (int i = 0; i < 10; i++) {
+                    tokens.consumeToken();
+                }
+                long firstStatement = System.nanoTime() - start;
+                drain(tokens);
+                long total = System.nanoTime() - start;
+                long peak = peakHeap() - baseline;
+                long retained = usedHeapAfterGc() - baseline;
+                System.out.printf("%-9s src=%-7s first statement=%8.2fms total=%8.2fms peak heap=%-8s retained=%s%n",
+                        streaming ? "streaming" : "eager", mb(src.length()), millis(firstStatement), millis(total),
+                        mb(peak), mb(retained));
+                // keep the token list reachable until after the retained measurement
+                tokens.reset();
+            }
+        }
+    }
+
+    private static TokenList drain(TokenList tokens) {
+        while (tokens.hasMoreTokens()) {
+            tokens.consumeToken();
+        }
+        return tokens;
+    }
+}
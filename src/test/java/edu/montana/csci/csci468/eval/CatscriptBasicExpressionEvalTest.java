@@ -1,6 +1,8 @@
 package edu.montana.csci.csci468.eval;
 
 import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
@@ -78,4 +80,20 @@ public class CatscriptBasicExpressionEvalTest extends CatscriptTestBase {
         assertEquals(1, evaluateExpression("(1)"));
     }
 
+    @Test
+    void nestedExpressionsEvaluateProperly() {
+        assertEquals(-2012, evaluateExpression("(1000 - 2000) * 2000 / 1000 + -(3 * 4)"));
+        assertEquals("n10242", evaluateExpression("\"n\" + (1000 + 24) + 2"));
+        assertEquals(true, evaluateExpression("300 * 3 > (1000 - 101)"));
+        assertEquals(false, evaluateExpression("-(300 * 3) >= 1000 - 101"));
+    }
+
+    @Test
+    void unverifiedExpressionsEvaluateWithoutSpecializing() {
+        CatScriptProgram program = new CatScriptParser().parse("(1000 - 2000) * 2000 / 1000 + -(3 * 4) < 7");
+        assertEquals(true, program.getExpression().evaluate(new CatscriptRuntime()));
+        program.verify();
+        assertEquals(true, program.getExpression().evaluate(new CatscriptRuntime()));
+    }
+
 }
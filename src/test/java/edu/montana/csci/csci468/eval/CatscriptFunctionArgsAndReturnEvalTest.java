@@ -96,6 +96,21 @@ public class CatscriptFunctionArgsAndReturnEvalTest extends CatscriptTestBase
     }
 
 
+    @Test
+    void recursiveCallsReturnTheirOwnResults() {
+        assertEquals("55\n", executeProgram("function fib(n : int) : int {\n" +
+                "  if (n < 2) { return n }\n" +
+                "  return fib(n - 1) + fib(n - 2)\n" +
+                "}\n" +
+                "print(fib(10))"));
+        assertEquals("9\n", executeProgram("function ack(m : int, n : int) : int {\n" +
+                "  if (m < 1) { return n + 1 }\n" +
+                "  if (n < 1) { return ack(m - 1, 1) }\n" +
+                "  return ack(m - 1, ack(m, n - 1))\n" +
+                "}\n" +
+                "print(ack(2, 3))"));
+    }
+
     @Test
     void returnListWithComponentTypeWorksProperly() {
         assertEquals("[1, 2, 3]\n", executeProgram("function foo() : list<int> { return [1, 2, 3] }" +
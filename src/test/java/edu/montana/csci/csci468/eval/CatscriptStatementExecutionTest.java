@@ -1,12 +1,20 @@
 package edu.montana.csci.csci468.eval;
 
 import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.parser.CatAstFormat;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.tokenizer.Token;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class CatscriptStatementExecutionTest extends CatscriptTestBase {
 
@@ -82,6 +90,31 @@ public class CatscriptStatementExecutionTest extends CatscriptTestBase {
         ));
     }
 
+    @Test
+    void eachCallHasItsOwnLocals() {
+        assertEquals("3\n2\n1\n1\n2\n3\n", executeProgram(
+                "function foo(x : int) {\n" +
+                        "  if (x > 0) {\n" +
+                        "    print(x)\n" +
+                        "    foo(x - 1)\n" +
+                        "    print(x)\n" +
+                        "  }\n" +
+                        "}\n" +
+                        "foo(3)"
+        ));
+        assertEquals("8\n15\n15\n", executeProgram(
+                "var total = 5\n" +
+                        "function add(a : int, b : int) {\n" +
+                        "  var sum = a + b + total\n" +
+                        "  print(sum)\n" +
+                        "  total = sum\n" +
+                        "}\n" +
+                        "add(1, 2)\n" +
+                        "add(3, 4)\n" +
+                        "print(total)"
+        ));
+    }
+
     @Test
     void returnStatementWorks() {
         assertEquals("10\n", executeProgram(
@@ -92,5 +125,38 @@ public class CatscriptStatementExecutionTest extends CatscriptTestBase {
         ));
     }
 
+    @Test
+    void loadedCatastProgramsRunLikeParsedOnes() throws IOException {
+        String src = "var total : int = -3\n" +
+                "function show(x : int, label : string) {\n" +
+                "  var doubled = x * 2\n" +
+                "  if (doubled >= 4) { print(label + doubled) } else { print(!(x != 1)) }\n" +
+                "}\n" +
+                "function down(x : int) {\n" +
+                "  print(x)\n" +
+                "  if (x > 0) { down(x - 1) }\n" +
+                "}\n" +
+                "for (x in [1, 2, 3]) { print(x) }\n" +
+                "show(1, \"n=\")\n" +
+                "show(3, \"n=\")\n" +
+                "down(2)\n" +
+                "print(total + 5)\n" +
+                "print([\"a\", null])";
+        CatScriptProgram parsed = new CatScriptParser().parse(src);
+        parsed.verify();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CatAstFormat.write(parsed, src, out);
+
+        CatScriptProgram loaded = CatAstFormat.read(new ByteArrayInputStream(out.toByteArray()), src);
+        loaded.execute();
+        assertEquals(executeProgram(src), loaded.getOutput());
+        Token start = loaded.getStatements().get(1).getStart();
+        assertEquals("function", start.getStringValue());
+        assertEquals(2, start.getLine());
+        assertEquals("function show(x : int, label : string) {", start.getLineContent());
+
+        assertThrows(CatAstFormat.StaleAstException.class,
+                () -> CatAstFormat.read(new ByteArrayInputStream(out.toByteArray()), src + "\n"));
+    }
 
 }
@@ -1,11 +1,19 @@
 package edu.montana.csci.csci468.parser;
 
 import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.parser.statements.PrintStatement;
+import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
+import edu.montana.csci.csci468.tokenizer.Token;
+import edu.montana.csci.csci468.tokenizer.TokenList;
+import edu.montana.csci.csci468.tokenizer.TokenType;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class CatscriptParserErrorsTest extends CatscriptTestBase {
@@ -16,6 +24,153 @@ public class CatscriptParserErrorsTest extends CatscriptTestBase {
         assertError(errors, 0, ErrorType.UNKNOWN_NAME, 1, 0);
     }
 
+    @Test
+    public void errorsAtTheSameTokenAreReportedOnce() {
+        CatScriptProgram program = new CatScriptParser().parse("if (true");
+        int reported = 0;
+        for (ParseElement element : program.getChildren()) {
+            reported += element.getErrors().size();
+        }
+        Diagnostics diagnostics = program.collectErrors(new Diagnostics());
+        assertEquals(3, reported);
+        assertEquals(1, diagnostics.getErrors().size());
+        assertEquals(2, diagnostics.getOmitted());
+        ParseError error = diagnostics.getErrors().get(0);
+        assertEquals(ErrorType.UNEXPECTED_TOKEN, error.getErrorType());
+        assertEquals(1, error.getLine());
+        assertEquals(8, error.getColumn());
+    }
+
+    @Test
+    public void truncatedInputIsReportedAsParseErrors() {
+        String[] truncated = {"print(", "if (", "var  =", "foo(", "foo(1,", "print(1 +", "x = ", "for (x in ", "function f("};
+        for (String src : truncated) {
+            assertThrows(ParseErrorException.class, () -> new CatScriptParser().parse(src).verify(), src);
+        }
+        assertError(getErrors("function foo() {}\nfoo("), 0, ErrorType.UNEXPECTED_TOKEN, 2, 4);
+    }
+
+    @Test
+    public void theInnermostErrorAtATokenIsKept() {
+        CatScriptProgram program = new CatScriptParser().parse("print(1)\nprint(2)");
+        PrintStatement print = (PrintStatement) program.getStatements().get(0);
+        Token token = print.getExpression().getStart();
+        print.addError(ErrorType.INCOMPATIBLE_TYPES, token);
+        print.getExpression().addError(ErrorType.UNKNOWN_NAME, token);
+        program.getStatements().get(1).addError(ErrorType.UNKNOWN_NAME);
+
+        List<ParseError> errors = program.collectErrors(new Diagnostics()).getErrors();
+        assertEquals(2, errors.size());
+        assertEquals(ErrorType.UNKNOWN_NAME, errors.get(0).getErrorType());
+        assertEquals(token.getIndex(), errors.get(0).getLocation().getIndex());
+
+        ParseBudget budget = new ParseBudget(1000, 50, 1, 10_000);
+        ParseBudgetExceededException exceeded = assertThrows(ParseBudgetExceededException.class,
+                () -> new CatScriptParser().parse("var x = 1\nvar x = 2\nvar x = 3\nvar x = 4").verify(budget));
+        assertEquals(3, exceeded.getLocation().getLine());
+    }
+
+    @Test
+    public void errorsAreCappedPerPhase() {
+        List<ParseError> errors = getErrors("print(missing)\n".repeat(150) + "var x = 1)\n".repeat(150));
+        assertEquals(2 * Diagnostics.DEFAULT_LIMIT_PER_PHASE, errors.size());
+        assertEquals(ErrorType.UNKNOWN_NAME, errors.get(0).getErrorType());
+        assertEquals(ErrorType.UNEXPECTED_TOKEN, errors.get(errors.size() - 1).getErrorType());
+
+        Diagnostics diagnostics = new CatScriptParser().parse("print(1))").collectErrors(new Diagnostics(0));
+        assertEquals(1, diagnostics.getOffered());
+        assertEquals(1, diagnostics.getOmitted());
+    }
+
+    @Test
+    public void budgetsStopParsingAndVerifying() {
+        assertLimit(ParseBudget.Limit.TOKENS, "print(1)\n".repeat(30), new ParseBudget(100, 50, 50, 10_000));
+        assertLimit(ParseBudget.Limit.DEPTH, "print(" + "(".repeat(60) + "1" + ")".repeat(60) + ")",
+                new ParseBudget(1000, 50, 50, 10_000));
+        assertLimit(ParseBudget.Limit.DEPTH, "if(true){\n".repeat(60) + "}\n".repeat(60),
+                new ParseBudget(1000, 50, 50, 10_000));
+        assertLimit(ParseBudget.Limit.ERRORS, "function f() { 1 }\n".repeat(20), new ParseBudget(1000, 50, 10, 10_000));
+        assertLimit(ParseBudget.Limit.ERRORS, "print(x)\n".repeat(20), new ParseBudget(1000, 50, 10, 10_000));
+        assertLimit(ParseBudget.Limit.TIME, "print(1)\n".repeat(200), new ParseBudget(1000, 50, 50, -1));
+
+        ParseBudget cancelled = new ParseBudget(1000, 50, 50, 10_000);
+        cancelled.cancel();
+        assertLimit(ParseBudget.Limit.CANCELLED, "print(1)\n".repeat(200), cancelled);
+
+        ParseBudget roomy = new ParseBudget(1000, 50, 50, 10_000);
+        CatScriptProgram program = new CatScriptParser().parse(new CatScriptTokenizer("print(1)\n".repeat(30)).getTokens(), roomy);
+        program.verify(roomy);
+        assertEquals(30, program.getStatements().size());
+    }
+
+    @Test
+    public void budgetsCountTheLevelsOfOperatorChains() {
+        // the server's defaults, which a 20k term chain passed before its levels were counted
+        assertLimit(ParseBudget.Limit.DEPTH, "print(1" + " + 0".repeat(20_000) + ")", new ParseBudget(100_000, 200, 100, 10_000));
+        assertLimit(ParseBudget.Limit.DEPTH, "print(" + "-".repeat(300) + "1)", new ParseBudget(100_000, 200, 100, 10_000));
+        assertLimit(ParseBudget.Limit.DEPTH, "print([f(1" + " * 2".repeat(150) + ") + 1" + " + 1".repeat(50) + "])",
+                new ParseBudget(100_000, 200, 100, 10_000));
+
+        ParseBudget roomy = new ParseBudget(100_000, 200, 100, 10_000);
+        CatScriptProgram program = new CatScriptParser().parse(new CatScriptTokenizer("print(1" + " + 0".repeat(190) + ")").getTokens(), roomy);
+        program.verify(roomy);
+        program.execute();
+        assertEquals("1\n", program.getOutput());
+    }
+
+    @Test
+    public void tooManyTokensAreCaughtWhileScanning() {
+        String source = "print(1)\n".repeat(10_000);
+        TokenList tokens = CatScriptTokenizer.pooled(source, 100).getTokens();
+        assertEquals(102, tokens.size());
+        assertEquals(TokenType.EOF, tokens.getType(101));
+        ParseBudgetExceededException exception = assertThrows(ParseBudgetExceededException.class,
+                () -> new CatScriptParser().parse(tokens, new ParseBudget(100, 50, 50, 10_000)));
+        assertEquals(ParseBudget.Limit.TOKENS, exception.getLimit());
+
+        assertEquals(40_001, CatScriptTokenizer.pooled(source).getTokens().size());
+    }
+
+    @Test
+    public void budgetsHoldWhenParsingAndVerifyingOnAPool() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertPooledLimit(ParseBudget.Limit.ERRORS, "function f() { 1 }\n".repeat(20),
+                    new ParseBudget(1000, 50, 10, 10_000), pool);
+            assertPooledLimit(ParseBudget.Limit.DEPTH, "function f() {\n" + "if(true){\n".repeat(60) + "}\n".repeat(60) + "}",
+                    new ParseBudget(1000, 50, 50, 10_000), pool);
+            StringBuilder unknownNames = new StringBuilder();
+            for (int i = 0; i < 20; i++) {
+                unknownNames.append("function f").append(i).append("() { print(x) }\n");
+            }
+            assertPooledLimit(ParseBudget.Limit.ERRORS, unknownNames.toString(), new ParseBudget(1000, 50, 10, 10_000), pool);
+
+            ParseBudget roomy = new ParseBudget(1000, 50, 50, 10_000);
+            String source = "var a = 1\nfunction f(x : int) { print(x + a) }\nfunction g() { f(2) }\ng()";
+            CatScriptProgram program = new CatScriptParser().parse(new CatScriptTokenizer(source).getTokens(), pool, roomy);
+            program.verify(pool, roomy);
+            assertEquals(4, program.getStatements().size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void assertPooledLimit(ParseBudget.Limit limit, String source, ParseBudget budget, ForkJoinPool pool) {
+        ParseBudgetExceededException exception = assertThrows(ParseBudgetExceededException.class, () -> {
+            CatScriptProgram program = new CatScriptParser().parse(new CatScriptTokenizer(source).getTokens(), pool, budget);
+            program.verify(pool, budget);
+        });
+        assertEquals(limit, exception.getLimit());
+    }
+
+    private void assertLimit(ParseBudget.Limit limit, String source, ParseBudget budget) {
+        ParseBudgetExceededException exception = assertThrows(ParseBudgetExceededException.class, () -> {
+            CatScriptProgram program = new CatScriptParser().parse(new CatScriptTokenizer(source).getTokens(), budget);
+            program.verify(budget);
+        });
+        assertEquals(limit, exception.getLimit());
+    }
+
     private void assertError(List<ParseError> errors, int errorIndex, ErrorType errorType) {
         assertError(errors, errorIndex, errorType, -1, -1);
     }
@@ -198,4 +198,74 @@ public class CatscriptParserExpressionsTest extends CatscriptTestBase {
         assertFalse(expr.isEqual());
     }
 
+    @Test
+    public void longAndDeeplyNestedExpressionsEvaluateUpToTheDepthLimit() {
+        int levels = CatScriptParser.MAX_DEPTH - 10;
+        StringBuilder sb = new StringBuilder("1");
+        int expected = 1;
+        for (int i = 0; i < levels; i++) {
+            sb.append(i % 2 == 0 ? " + " : " * ").append(i);
+            if (i % 2 == 1) {
+                expected += (i - 1) * i;
+            }
+        }
+        AdditiveExpression sum = parseExpression(sb.toString());
+        assertTrue(sum.getRightHandSide() instanceof FactorExpression);
+        assertEquals(expected, evaluateExpression(sb.toString()));
+        assertEquals(-1, evaluateExpression("(".repeat(levels) + "-1" + ")".repeat(levels)));
+
+        // refused as the parser gets past the limit, not after building the whole tree
+        ParseBudgetExceededException longChain = assertThrows(ParseBudgetExceededException.class,
+                () -> parseExpression("1" + " + 1".repeat(100_000), false));
+        assertEquals(ParseBudget.Limit.DEPTH, longChain.getLimit());
+        assertEquals(CatScriptParser.MAX_DEPTH, longChain.getAllowed());
+        ParseBudgetExceededException deepParens = assertThrows(ParseBudgetExceededException.class,
+                () -> parseExpression("(".repeat(50_000) + "-1" + ")".repeat(50_000), false));
+        assertEquals(ParseBudget.Limit.DEPTH, deepParens.getLimit());
+        assertTrue(deepParens.getLocation().getLineOffset() <= CatScriptParser.MAX_DEPTH);
+    }
+
+    @Test
+    public void walkVisitsInSourceOrderWithoutRecursing() {
+        AdditiveExpression expr = parseExpression("1 + (2 * 3)");
+        StringBuilder order = new StringBuilder();
+        expr.walk(new ParseTreeVisitor() {
+            @Override
+            public boolean enter(ParseElement element) {
+                order.append("<").append(element);
+                return !(element instanceof FactorExpression);
+            }
+
+            @Override
+            public void leave(ParseElement element) {
+                order.append(">");
+            }
+        });
+        assertEquals("<AdditiveExpression[+]<1><ParenthesizedExpression<FactorExpression[*]>>>",
+                order.toString());
+
+        // deeper than the parser allows, so built directly
+        Expression parenthesized = new IntegerLiteralExpression("1");
+        for (int i = 0; i < 50_000; i++) {
+            parenthesized = new ParenthesizedExpression(parenthesized);
+        }
+        int[] count = new int[1];
+        parenthesized.walk(new ParseTreeVisitor() {
+            @Override
+            public void leave(ParseElement element) {
+                count[0]++;
+            }
+        });
+        assertEquals(50_001, count[0]);
+    }
+
+    @Test
+    public void comparisonsDoNotChain() {
+        CatScriptProgram program = new CatScriptParser().parseAsExpression("1 < 2 < 3");
+        assertTrue(program.getExpression() instanceof ComparisonExpression);
+        EqualityExpression equality = parseExpression("1 < 2 == 3 > 4", false);
+        assertTrue(equality.getLeftHandSide() instanceof ComparisonExpression);
+        assertTrue(equality.getRightHandSide() instanceof ComparisonExpression);
+    }
+
 }
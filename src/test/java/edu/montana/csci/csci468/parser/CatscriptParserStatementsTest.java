@@ -3,8 +3,15 @@ package edu.montana.csci.csci468.parser;
 import edu.montana.csci.csci468.CatscriptTestBase;
 import edu.montana.csci.csci468.parser.expressions.*;
 import edu.montana.csci.csci468.parser.statements.*;
+import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
+import edu.montana.csci.csci468.tokenizer.Token;
+import edu.montana.csci.csci468.tokenizer.TokenList;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class CatscriptParserStatementsTest extends CatscriptTestBase {
@@ -194,4 +201,94 @@ public class CatscriptParserStatementsTest extends CatscriptTestBase {
         assertTrue(returnStmt.getExpression() instanceof IntegerLiteralExpression);
     }
 
+    @Test
+    public void programKindIsPredictedFromTheFirstTokens() {
+        assertTrue(new CatScriptParser().parse("x + 1").isExpression());
+        assertTrue(new CatScriptParser().parse("-(1)").isExpression());
+        assertFalse(new CatScriptParser().parse("x = 1").isExpression());
+        assertTrue(new CatScriptParser().parse("foo(1)").getStatements().get(0) instanceof FunctionCallStatement);
+        assertTrue(new CatScriptParser().parse("var x = 1\nprint(x)").getStatements().get(1) instanceof PrintStatement);
+        // neither kind, reported by the statement parser
+        assertFalse(new CatScriptParser().parse("1 2").isExpression());
+    }
+
+    @Test
+    public void childrenAreKeptInTheOrderTheyWereAdded() {
+        IfStatement stmt = parseStatement("if(true){ print(1) print(2) } else { print(3) }", false);
+        assertEquals(4, stmt.getChildren().size());
+        assertTrue(stmt.getChildren().get(0) instanceof BooleanLiteralExpression);
+        assertSame(stmt.getTrueStatements().get(1), stmt.getChildren().get(2));
+        assertSame(stmt.getElseStatements().get(0), stmt.getChildren().get(3));
+        assertFalse(stmt.hasErrors());
+        assertTrue(stmt.getErrors().isEmpty());
+    }
+
+    @Test
+    public void detachedTreesKeepTokenPositionsAndErrorRendering() {
+        CatScriptProgram program = new CatScriptParser().parse("var x = 1\nvar y 2");
+        ParseError error = program.getStatements().get(1).getErrors().get(0);
+        String message = error.getFullMessage();
+        Token start = program.getStatements().get(1).getStart();
+
+        program.detachFromTokens();
+
+        ParseError detachedError = program.getStatements().get(1).getErrors().get(0);
+        Token detachedStart = program.getStatements().get(1).getStart();
+        assertEquals(message, detachedError.getFullMessage());
+        assertEquals(start.toString(), detachedStart.toString());
+        assertEquals("var y 2", detachedStart.getLineContent());
+        assertSame(detachedStart, detachedStart.detach());
+    }
+
+    @Test
+    public void parsingFunctionsOnAPoolGivesTheSameTree() {
+        StringBuilder src = new StringBuilder("var limit = 10\n");
+        for (int i = 0; i < 50; i++) {
+            if (i % 13 == 0) {
+                // swallowed by the unfinished statement in front of it
+                src.append("var y").append(i).append(" = function g").append(i).append("() { print(1) }\n");
+                continue;
+            }
+            src.append("function f").append(i).append("(a : int, b) : int {\n")
+                    .append("  if (a > limit) { for (x in [a, b]) { print(x) } } else { var c = a * ").append(i).append(" }\n")
+                    .append(i % 9 == 0 ? "  var = 1\n" : "  print(b)\n")
+                    .append("  return a\n}\n")
+                    .append("print(").append(i).append(")\n");
+        }
+        String source = src.toString();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            TokenList tokens = new CatScriptTokenizer(source).getTokens();
+            String sequential = describe(new CatScriptParser().parse(tokens));
+            tokens.reset();
+            assertEquals(sequential, describe(new CatScriptParser().parse(tokens, pool)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private String describe(ParseElement root) {
+        StringBuilder sb = new StringBuilder();
+        ArrayDeque<ParseElement> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            ParseElement element = pending.pop();
+            sb.append(element).append(' ').append(position(element.getStart())).append('-')
+                    .append(position(element.getEnd()));
+            for (ParseError error : element.getErrors()) {
+                sb.append(' ').append(error.getErrorType()).append('@').append(position(error.getLocation()));
+            }
+            sb.append('\n');
+            List<ParseElement> children = element.getChildren();
+            for (int i = children.size() - 1; i >= 0; i--) {
+                pending.push(children.get(i));
+            }
+        }
+        return sb.toString();
+    }
+
+    private String position(Token token) {
+        return token == null ? "?" : token.getIndex() + ":" + token.getStringValue();
+    }
+
 }
@@ -6,8 +6,13 @@ import edu.montana.csci.csci468.parser.statements.Statement;
 import edu.montana.csci.csci468.parser.statements.VariableStatement;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class CatscriptParserSymbolCheckingTest extends CatscriptTestBase {
 
@@ -60,4 +65,46 @@ public class CatscriptParserSymbolCheckingTest extends CatscriptTestBase {
         assertNotNull(statement);
     }
 
+    @Test
+    void blockVarsConflictWithEnclosingBlocksUntilTheyClose() {
+        assertEquals(ErrorType.DUPLICATE_NAME, getParseError("if(true){ var x = 1\n" +
+                "  if(true){ if(true){ var x = 2 } } }"));
+        assertEquals(ErrorType.UNKNOWN_NAME, getParseError("if(true){ if(true){ var x = 1 } print(x) }"));
+        Statement statement = parseStatement("if(true){ if(true){ var x = 1 } var x = true\n" +
+                "  if(true){ var y = x } var y = 1 }\n");
+        assertNotNull(statement);
+    }
+
+    @Test
+    void parallelVerificationReportsTheSameErrorsInTheSameOrder() {
+        StringBuilder src = new StringBuilder("var a = 1\n");
+        for (int i = 0; i < 200; i++) {
+            src.append("function f").append(i).append("(x : int, ").append(i % 7 == 0 ? "a" : "y").append(") {\n")
+                    .append("  var z = x + a\n")
+                    .append("  print(").append(i % 5 == 0 ? "b" : "z").append(")\n}\n");
+            if (i == 100) {
+                src.append("var b = 2\n");
+            }
+        }
+        src.append("function f3() {}\n");
+        String source = src.toString();
+
+        ParseErrorException sequential = assertThrows(ParseErrorException.class,
+                () -> new CatScriptParser().parse(source).verify());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParseErrorException parallel = assertThrows(ParseErrorException.class,
+                    () -> new CatScriptParser().parse(source).verify(pool));
+            assertEquals(describe(sequential), describe(parallel));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private List<String> describe(ParseErrorException exception) {
+        return exception.getErrors().stream()
+                .map(error -> error.getErrorType() + "@" + error.getLocation().getLine() + ":" + error.getLocation().getLineOffset())
+                .collect(Collectors.toList());
+    }
+
 }
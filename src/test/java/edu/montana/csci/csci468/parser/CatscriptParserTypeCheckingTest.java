@@ -77,5 +77,28 @@ public class CatscriptParserTypeCheckingTest extends CatscriptTestBase {
         assertEquals(ErrorType.INCOMPATIBLE_TYPES, getParseError("1 > true"));
     }
 
+    @Test
+    void listTypesAreSharedAndCheckTheirComponents() {
+        CatscriptType nested = CatscriptType.getListType(CatscriptType.getListType(CatscriptType.INT));
+        assertSame(nested, parseExpression("[[1, 2], [3]]").getType());
+        assertSame(nested, CatscriptType.getListType(CatscriptType.getListType(CatscriptType.INT)));
+        assertNotEquals(CatscriptType.getListType(CatscriptType.STRING), CatscriptType.getListType(CatscriptType.INT));
+        assertTrue(CatscriptType.getListType(CatscriptType.OBJECT).isAssignableFrom(nested));
+        assertFalse(nested.isAssignableFrom(CatscriptType.getListType(CatscriptType.OBJECT)));
+        assertTrue(CatscriptType.OBJECT.isAssignableFrom(nested));
+        assertFalse(CatscriptType.INT.isAssignableFrom(nested));
+        assertEquals(ErrorType.INCOMPATIBLE_TYPES, getParseError("var x : list<list<int>> = [[\"a\"]]"));
+
+        assertThrows(IllegalArgumentException.class, () -> CatscriptType.getListType(null));
+        VariableStatement unknownComponent = parseStatement("var x : list<foo> = [1]");
+        assertSame(CatscriptType.getListType(CatscriptType.OBJECT), unknownComponent.getExplicitType());
+
+        CatscriptType custom = new CatscriptType("int", Integer.class);
+        assertNotEquals(CatscriptType.INT, custom);
+        assertTrue(custom.isAssignableFrom(CatscriptType.INT));
+        assertTrue(CatscriptType.OBJECT.isAssignableFrom(custom));
+        assertFalse(CatscriptType.STRING.isAssignableFrom(custom));
+    }
+
 
 }
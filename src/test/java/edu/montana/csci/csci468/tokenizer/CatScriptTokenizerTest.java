@@ -2,8 +2,18 @@ package edu.montana.csci.csci468.tokenizer;
 
 import edu.montana.csci.csci468.CatscriptTestBase;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 import static edu.montana.csci.csci468.tokenizer.TokenType.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -70,6 +80,20 @@ public class CatScriptTokenizerTest extends CatscriptTestBase {
                 PRINT, RETURN, TRUE, VAR, EOF);
     }
 
+    @Test
+    public void nearKeywordsAreIdentifiers(){
+        assertTokensAre("fo forx iff i n functions Print nul returns vars",
+                IDENTIFIER, IDENTIFIER, IDENTIFIER, IDENTIFIER, IDENTIFIER, IDENTIFIER,
+                IDENTIFIER, IDENTIFIER, IDENTIFIER, IDENTIFIER, EOF);
+    }
+
+    @Test
+    public void identifiersAreInterned(){
+        List<Token> tokens = getTokensAsList("foo bar foo");
+        assertSame(tokens.get(0).getStringValue(), tokens.get(2).getStringValue());
+        assertEquals("bar", tokens.get(1).getStringValue());
+    }
+
     @Test
     public void basicSyntax(){
         assertTokensAre("( ) { } [ ] : , . - + / * != = == > >= < <=",
@@ -119,6 +143,32 @@ public class CatScriptTokenizerTest extends CatscriptTestBase {
         assertEquals(0, tokenList.get(4).getLineOffset());
     }
 
+    @Test
+    public void lineOffsetsAreCorrectForAllTokenKinds() {
+        final List<Token> tokenList = getTokensAsList("x = 10\n  [1, \"a\"]");
+        assertEquals(4, tokenList.get(2).getLineOffset());
+        assertEquals(2, tokenList.get(3).getLineOffset());
+        assertEquals(3, tokenList.get(4).getLineOffset());
+        assertEquals(7, tokenList.get(6).getLineOffset());
+    }
+
+    @Test
+    public void lineIndexIsRecordedWhileScanning() {
+        CatScriptTokenizer tokenizer = new CatScriptTokenizer("a\n\"b\nc\"\n  d\n");
+        LineIndex lines = tokenizer.getLines();
+        assertEquals(5, lines.getLineCount());
+        assertEquals("\"b", lines.lineContent(2));
+        assertEquals("  d", lines.lineContent(4));
+        assertEquals("", lines.lineContent(5));
+        assertEquals(4, lines.lineOf(10));
+        assertEquals(2, lines.columnOf(10));
+
+        List<Token> tokens = tokenizer.getTokens().stream().collect(Collectors.toList());
+        assertEquals(2, tokens.get(1).getLine());
+        assertEquals(4, tokens.get(2).getLine());
+        assertEquals("  d", tokens.get(2).getLineContent());
+    }
+
     @Test
     public void startsAreCorrect() {
         final List<Token> tokenList = getTokensAsList("a\n b\n  c");
@@ -147,4 +197,169 @@ public class CatScriptTokenizerTest extends CatscriptTestBase {
     }
 
 
+    @Test
+    public void tokenTextIsSlicedFromTheSource() {
+        assertTokensAre("1 / foo == \"bar\"", "1", "/", "foo", "==", "bar", "<EOF>");
+        assertTokensAre("@", "<Unexpected Token: [@]>", "<EOF>");
+    }
+
+    @Test
+    public void mappedFilesProduceSameTokensAsStrings(@TempDir Path dir) throws IOException {
+        String src = "function foo(x : int) {\n  print(x >= 10) // done\n}\n~ \"unterminated";
+        Path file = dir.resolve("test.cat");
+        Files.write(file, src.getBytes(StandardCharsets.UTF_8));
+        List<String> expected = getTokensAsList(src).stream().map(Token::toString).collect(Collectors.toList());
+        List<String> actual = CatScriptTokenizer.forFile(file).getTokens().stream().map(Token::toString).collect(Collectors.toList());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void mappedFilesDecodeUtf8Text(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("utf8.cat");
+        Files.write(file, "print(\"h\u00e9llo\") \u00e9".getBytes(StandardCharsets.UTF_8));
+        TokenList tokens = CatScriptTokenizer.forFile(file).getTokens();
+        assertEquals(List.of("print", "(", "h\u00e9llo", ")", "<Unexpected Token: [\u00e9]>", "<EOF>"),
+                tokens.stream().map(Token::getStringValue).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void retokenizingAnEditMatchesAFreshTokenization() {
+        String src = "var x = 10\nprint(x >= 2) // note\n\"str\ning\" foo(a, b)\nif(not y) { z = [1, 2] }\n";
+        String[] insertions = {"", "a", "1", "=", "/", "//", "\"", "\n", " ", "! x", "foo\n(\"", "}"};
+        Random random = new Random(468);
+        for (int i = 0; i < 2000; i++) {
+            int offset = random.nextInt(src.length() + 1);
+            int removed = random.nextInt(Math.min(4, src.length() - offset) + 1);
+            String inserted = insertions[random.nextInt(insertions.length)];
+            String edited = src.substring(0, offset) + inserted + src.substring(offset + removed);
+
+            TokenList incremental = getTokenList(src).retokenize(offset, removed, inserted);
+            List<String> expected = getTokensAsList(edited).stream().map(t -> t + t.getLineContent()).collect(Collectors.toList());
+            List<String> actual = incremental.stream().map(t -> t + t.getLineContent()).collect(Collectors.toList());
+            assertEquals(expected, actual, "editing " + offset + "+" + removed + " -> '" + inserted + "'");
+            src = edited.length() > 200 ? src : edited;
+        }
+    }
+
+    @Test
+    public void retokenizingLeavesThePreviousNameTableAlone() {
+        CatScriptTokenizer original = new CatScriptTokenizer("var a = b");
+        CatScriptTokenizer edited = original;
+        String name = "a";
+        for (int i = 0; i < 500; i++) {
+            String renamed = "n" + i;
+            edited = CatScriptTokenizer.applyEdit(edited, 4, name.length(), renamed);
+            name = renamed;
+            assertTrue(edited.getNames().size() <= 6, "names after " + i + " edits");
+        }
+        assertEquals(2, original.getNames().size());
+        assertEquals(List.of("var", "n499", "=", "b", "<EOF>"),
+                edited.getTokens().stream().map(Token::getStringValue).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void longWhitespaceCommentsAndStringsAreScannedWordAtATime() {
+        assertTokensAre("          \t\r   x               y", "x", "y", "<EOF>");
+        assertTokensAre("a // a comment that is longer than a few words\nb", "a", "b", "<EOF>");
+        assertTokensAre("\"a string that is longer than eight chars \\\" with an escape\" c",
+                "a string that is longer than eight chars \\\" with an escape", "c", "<EOF>");
+        List<Token> tokens = getTokensAsList("\"0123456789\n0123456789\n\"\n        x");
+        assertEquals(4, tokens.get(1).getLine());
+        assertEquals(8, tokens.get(1).getLineOffset());
+    }
+
+    @Test
+    public void charsOutsideLatin1AreNotMistakenForWhitespaceOrQuotes() {
+        // the low bytes of these are ' ', '\n' and '"'
+        assertTokensAre("a \u0120 b", "a", "<Unexpected Token: [\u0120]>", "b", "<EOF>");
+        assertTokensAre("\"x\u010Ay\u0122z\" \uD83D\uDE00 w", "x\u010Ay\u0122z", "<Unexpected Token: [\uD83D]>",
+                "<Unexpected Token: [\uDE00]>", "w", "<EOF>");
+        List<Token> tokens = getTokensAsList("// \uD83D\uDE00 \u010A x\ny");
+        assertEquals("y", tokens.get(0).getStringValue());
+        assertEquals(2, tokens.get(0).getLine());
+
+        // they become 0 whichever way the bytes are made, not '?'
+        assertArrayEquals(new byte[]{'a', 0, 'b', (byte) 0xE9}, ByteScanner.bytesOf("a\u0120b\u00E9").array());
+        byte[] expected = {'a', 0, 'b', 0, 0, 'c'};
+        String source = "a\u0120b\uD83D\uDE00c";
+        assertArrayEquals(expected, ByteScanner.bytesOf(source).array());
+        assertArrayEquals(expected, Arrays.copyOf(ByteScanner.bytesOf(source, ByteBuffer.allocate(16)).array(), 6));
+    }
+
+    @Test
+    public void parallelTokenizationMatchesSequential() {
+        String src = "var x = 10\nprint(\"a\nb\nc\") // note \"\n\"str\ning\" foo(a, b)\n~ if(not y) { z = [1, 2] }\n\"open\n";
+        List<String> expected = getTokensAsList(src).stream().map(t -> t + t.getLineContent()).collect(Collectors.toList());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int chunkSize = 1; chunkSize <= src.length(); chunkSize++) {
+                CatScriptTokenizer tokenizer = CatScriptTokenizer.parallel(src, pool, chunkSize);
+                List<String> actual = tokenizer.getTokens().stream().map(t -> t + t.getLineContent()).collect(Collectors.toList());
+                assertEquals(expected, actual, "chunk size " + chunkSize);
+                assertEquals(new CatScriptTokenizer(src).getLines().getLineCount(), tokenizer.getLines().getLineCount());
+                assertEquals(new CatScriptTokenizer(src).getNames().size(), tokenizer.getNames().size());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void resetTokenizerProducesSameTokensAsAFreshOne() {
+        StringBuilder large = new StringBuilder();
+        while (large.length() <= CatScriptTokenizer.MAX_RETAINED_CHARS) {
+            large.append("var longer_name = \"text\" ~\n");
+        }
+        String[] sources = {"var x = 10\nprint(x) ~", "a", large.toString(), "\"unterminated\n", "", "if(y) { z }"};
+        CatScriptTokenizer tokenizer = new CatScriptTokenizer("");
+        for (String src : sources) {
+            List<String> expected = getTokensAsList(src).stream().map(t -> t + t.getLineContent()).collect(Collectors.toList());
+            tokenizer.reset(src);
+            List<String> actual = tokenizer.getTokens().stream().map(t -> t + t.getLineContent()).collect(Collectors.toList());
+            assertEquals(expected, actual);
+            assertEquals(new CatScriptTokenizer(src).getNames().size(), tokenizer.getNames().size());
+        }
+        assertSame(CatScriptTokenizer.pooled("a"), CatScriptTokenizer.pooled("b"));
+    }
+
+    @Test
+    public void tokensOfAResetTokenizerRefuseToReadTheNextSource() {
+        CatScriptTokenizer tokenizer = CatScriptTokenizer.pooled("var first = 1");
+        Token name = tokenizer.getTokens().stream().skip(1).findFirst().get();
+        Token detached = tokenizer.getTokens().stream().skip(1).findFirst().get().detach();
+        Token read = tokenizer.getTokens().stream().skip(1).findFirst().get();
+        assertEquals("first", read.getStringValue());
+
+        CatScriptTokenizer.pooled("var other = 2");
+        assertThrows(IllegalStateException.class, name::getStringValue);
+        assertThrows(IllegalStateException.class, name::detach);
+        assertThrows(IllegalStateException.class, detached::getLineContent);
+        assertEquals("first", detached.getStringValue());
+        assertEquals("first", read.getStringValue());
+        assertEquals(1, name.getLine());
+    }
+
+    @Test
+    public void streamingModeProducesSameTokens() {
+        String src = "var x = [1, 2]\n// comment\nfor(i in x) { print(\"a\" + i) }\n  foo(1 >= 2, not true) ~";
+        List<Token> eager = getTokensAsList(src);
+        TokenList streaming = new CatScriptTokenizer(src, true).getTokens();
+        for (Token expected : eager) {
+            Token actual = streaming.consumeToken();
+            assertEquals(expected.toString(), actual.toString());
+        }
+        assertEquals(eager.size(), streaming.stream().count());
+    }
+
+    @Test
+    public void streamingModeResetRescansFromTheStart() {
+        TokenList tokens = new CatScriptTokenizer("a b c d e f g", true).getTokens();
+        while (tokens.hasMoreTokens()) {
+            tokens.consumeToken();
+        }
+        tokens.reset();
+        assertEquals("a", tokens.consumeToken().getStringValue());
+        assertEquals("b", tokens.getCurrentToken().getStringValue());
+    }
+
 }